@@ -0,0 +1,317 @@
+import functions.*;
+import functions.basic.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class Benchmarks {
+    public static void main(String[] args) throws Exception {
+        regressions();
+        evaluationService();
+        fastMath();
+        linkedListReads();
+    }
+
+    // проверки исправленных ошибок; при нарушении бросают IllegalStateException
+    private static void regressions() throws Exception {
+        System.out.println("=== Регрессионные проверки ===");
+        compositionSteepThenFlat();
+        evaluationServiceCloseDuringSubmit();
+        pyramidWindowNextToSpike();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+        System.out.println("OK: " + message);
+    }
+
+    // крутой отрезок внутренней функции пересекает все узлы внешней, за ним идут плоские
+    private static void compositionSteepThenFlat() {
+        TabulatedFunction inner = new ArrayTabulatedFunction(new FunctionPoint[]{
+                new FunctionPoint(0, 0), new FunctionPoint(1, 100), new FunctionPoint(2, 100)});
+        TabulatedFunction outer = new ArrayTabulatedFunction(0, 100, new double[]{0, 1, 4, 9, 16, 25});
+        TabulatedFunction composed = TabulatedFunctions.composition(inner, outer);
+        check(composed.getPointsCount() == 7 && composed.getFunctionValue(0.5) == outer.getFunctionValue(50)
+                        && composed.getFunctionValue(1.5) == 25,
+                "composition keeps all breakpoints of a steep segment followed by flat ones");
+    }
+
+    // запросы, отправленные во время close, должны завершиться - результатом или исключением
+    private static void evaluationServiceCloseDuringSubmit() throws Exception {
+        int hanging = 0;
+        for (int round = 0; round < 50; round++) {
+            EvaluationService service = new EvaluationService(new Sin(), 64, 50, TimeUnit.MICROSECONDS);
+            List<CompletableFuture<double[]>> pending = java.util.Collections.synchronizedList(new ArrayList<>());
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        pending.add(service.evaluate(new double[]{i}));
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            Thread.sleep(1);
+            service.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            // отклонённые после закрытия запросы допустимы, зависшие - нет
+            try {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                        .exceptionally(e -> null).get(5, TimeUnit.SECONDS);
+            } catch (java.util.concurrent.TimeoutException e) {
+                for (CompletableFuture<double[]> future : pending) {
+                    if (!future.isDone()) {
+                        hanging++;
+                    }
+                }
+            }
+        }
+        check(hanging == 0, "EvaluationService completes every future submitted during close");
+    }
+
+    // окно из нулей, справа от которого выброс: края корзин не должны захватывать точки вне окна
+    private static void pyramidWindowNextToSpike() {
+        double[] ys = new double[64];
+        ys[31] = 1000;
+        TabulatedPyramid pyramid = new TabulatedPyramid(new ArrayTabulatedFunction(0, 63, ys));
+        boolean clipped = true;
+        for (int buckets = 1; buckets <= 8; buckets++) {
+            for (TabulatedPyramid.Bucket bucket : pyramid.downsample(0, 30, buckets)) {
+                clipped &= bucket.getMax() == 0 && bucket.getRightX() <= 30;
+            }
+        }
+        TabulatedPyramid.Bucket[] whole = pyramid.downsample(3, 40, 1);
+        check(clipped && whole[0].getMax() == 1000 && whole[0].getPointsCount() == 38,
+                "TabulatedPyramid buckets contain only points inside the window");
+    }
+
+    private static void evaluationService() throws Exception {
+        System.out.println("=== EvaluationService: пакетная обработка запросов против прямых вызовов ===");
+        Function function = Functions.sum(
+                Functions.composition(new Exp(), new Log(Math.E)),
+                Functions.power(new Sin(), 2));
+        int clients = 64;
+        int requestsPerClient = 2000;
+        int valuesPerRequest = 4;
+        long total = (long) clients * requestsPerClient * valuesPerRequest;
+
+        // обе стороны работают из одинакового числа клиентских потоков
+        long direct = runClients(clients, c -> {
+            double sum = 0;
+            for (int r = 0; r < requestsPerClient; r++) {
+                for (int k = 0; k < valuesPerRequest; k++) {
+                    sum += function.getFunctionValue(c + r * 0.001 + k);
+                }
+            }
+            if (sum == 42) System.out.println();
+        });
+        System.out.printf("Прямые вызовы:              %8.1f тыс. значений/с%n", total / (direct / 1e6));
+
+        try (EvaluationService service = new EvaluationService(function, 4096, 200, TimeUnit.MICROSECONDS)) {
+            long batched = runClients(clients, c -> {
+                List<CompletableFuture<double[]>> pending = new ArrayList<>();
+                for (int r = 0; r < requestsPerClient; r++) {
+                    double[] xs = new double[valuesPerRequest];
+                    for (int k = 0; k < valuesPerRequest; k++) {
+                        xs[k] = c + r * 0.001 + k;
+                    }
+                    pending.add(service.evaluate(xs));
+                }
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+            });
+            System.out.printf("EvaluationService:          %8.1f тыс. значений/с%n", total / (batched / 1e6));
+        }
+
+        // сам пакетный путь без очереди: выражение по столбцам против поточечных вызовов
+        int n = 4096;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = 1 + i * 0.001;
+        }
+        long pointwise = Long.MAX_VALUE;
+        long columns = Long.MAX_VALUE;
+        for (int round = 0; round < 500; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                ys[i] = function.getFunctionValue(xs[i]);
+            }
+            pointwise = Math.min(pointwise, System.nanoTime() - start);
+            start = System.nanoTime();
+            function.getFunctionValues(xs, ys);
+            columns = Math.min(columns, System.nanoTime() - start);
+        }
+        System.out.printf("Поточечно %5.1f нс, по столбцам %5.1f нс на значение%n",
+                (double) pointwise / n, (double) columns / n);
+        // по столбцам выражение выигрывает на вызовах узлов и проверках областей определения, но у дешёвых
+        // функций на каждый запрос к сервису приходятся копия массива, CompletableFuture и передача между
+        // потоками; сервис оправдан, когда значение дорого по сравнению с этими накладными расходами
+    }
+
+    private static long runClients(int clients, java.util.function.IntConsumer body) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> body.accept(client));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void fastMath() {
+        System.out.println("=== FastMath: погрешность и скорость относительно java.lang.Math ===");
+        int n = 1 << 20;
+        java.util.Random random = new java.util.Random(42);
+        double[] trig = new double[n];
+        for (int i = 0; i < n; i++) {
+            trig[i] = (random.nextDouble() - 0.5) * 200;
+        }
+        String[] names = {"sin", "cos", "tan"};
+        double[] expected = new double[n];
+        double[] actual = new double[n];
+        for (FastMath.Accuracy accuracy : FastMath.Accuracy.values()) {
+            for (int f = 0; f < names.length; f++) {
+                double[] xs = trig;
+                double error = 0;
+                for (int i = 0; i < n; i++) {
+                    expected[i] = exact(f, xs[i]);
+                }
+                fast(f, xs, actual, accuracy);
+                for (int i = 0; i < n; i++) {
+                    double diff = Math.abs(actual[i] - expected[i]);
+                    // tan оценивается по относительной погрешности
+                    if (f == 2) {
+                        diff = expected[i] == 0 ? diff : diff / Math.abs(expected[i]);
+                    }
+                    if (Double.isFinite(expected[i])) {
+                        error = Math.max(error, diff);
+                    }
+                }
+                long mathTime = Long.MAX_VALUE;
+                long fastTime = Long.MAX_VALUE;
+                for (int round = 0; round < 20; round++) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < n; i++) {
+                        expected[i] = exact(f, xs[i]);
+                    }
+                    mathTime = Math.min(mathTime, System.nanoTime() - start);
+                    start = System.nanoTime();
+                    fast(f, xs, actual, accuracy);
+                    fastTime = Math.min(fastTime, System.nanoTime() - start);
+                }
+                System.out.printf("%-4s %-4s погрешность %.2e (граница %.0e)  Math %5.2f нс  Fast %5.2f нс%n",
+                        accuracy, names[f], error, accuracy.getErrorBound(),
+                        (double) mathTime / n, (double) fastTime / n);
+            }
+        }
+    }
+
+    private static double exact(int function, double x) {
+        switch (function) {
+            case 0: return Math.sin(x);
+            case 1: return Math.cos(x);
+            default: return Math.tan(x);
+        }
+    }
+
+    private static void fast(int function, double[] xs, double[] out, FastMath.Accuracy accuracy) {
+        switch (function) {
+            case 0: FastMath.sin(xs, out, accuracy); break;
+            case 1: FastMath.cos(xs, out, accuracy); break;
+            default: FastMath.tan(xs, out, accuracy);
+        }
+    }
+
+    // в репозитории нет тестового каркаса, поэтому стресс-проверка параллельного чтения живёт здесь
+    private static void linkedListReads() throws Exception {
+        System.out.println("=== LinkedListTabulatedFunction: параллельное чтение с пальцами потоков ===");
+        int n = 20000;
+        FunctionPoint[] points = new FunctionPoint[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = new FunctionPoint(i * 0.5, i * 0.25);
+        }
+        LinkedListTabulatedFunction list = new LinkedListTabulatedFunction(points);
+        int readsPerThread = 2_000_000;
+        int processors = Runtime.getRuntime().availableProcessors();
+        // ускорение считается относительно одного потока без замка; рост возможен, только пока потоков не больше ядер
+        System.out.println("Доступно ядер: " + processors);
+        // прогрев, чтобы первая строка таблицы не включала компиляцию
+        double warmup = 0;
+        for (int r = 0; r < readsPerThread; r++) {
+            warmup += list.getPointX(r % n) + list.getPointY((r + 1) % n);
+        }
+        if (Double.isNaN(warmup)) {
+            throw new IllegalStateException("Warm-up reads returned NaN");
+        }
+        double singleThreadRate = 0;
+        for (int threadsCount = 1; threadsCount <= Math.max(8, processors); threadsCount *= 2) {
+            for (boolean locked : new boolean[]{false, true}) {
+                java.util.concurrent.atomic.AtomicLong errors = new java.util.concurrent.atomic.AtomicLong();
+                List<Thread> threads = new ArrayList<>();
+                for (int t = 0; t < threadsCount; t++) {
+                    int seed = t;
+                    threads.add(new Thread(() -> {
+                        java.util.Random random = new java.util.Random(seed);
+                        // каждый поток читает свою окрестность и понемногу сдвигается: так проверяется локальность
+                        int index = random.nextInt(n);
+                        long bad = 0;
+                        for (int r = 0; r < readsPerThread; r++) {
+                            index = Math.floorMod(index + random.nextInt(9) - 4, n);
+                            double x;
+                            double y;
+                            if (locked) {
+                                synchronized (list) {
+                                    x = list.getPointX(index);
+                                    y = list.getPointY(index);
+                                }
+                            } else {
+                                x = list.getPointX(index);
+                                y = list.getPointY(index);
+                            }
+                            if (x != index * 0.5 || y != index * 0.25) {
+                                bad++;
+                            }
+                            if ((r & 65535) == 0) {
+                                // за последней точкой значение не определено: NaN сравнивается только через isNaN
+                                double value = list.getFunctionValue(index * 0.5 + 0.25);
+                                if (index < n - 1 ? value != index * 0.25 + 0.125 : !Double.isNaN(value)) {
+                                    bad++;
+                                }
+                            }
+                        }
+                        errors.addAndGet(bad);
+                    }));
+                }
+                long start = System.nanoTime();
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long elapsed = System.nanoTime() - start;
+                long total = (long) threadsCount * readsPerThread;
+                double rate = total / (elapsed / 1e3);
+                if (threadsCount == 1 && !locked) {
+                    singleThreadRate = rate;
+                }
+                System.out.printf("%2d потоков, %-12s %8.1f млн чтений/с, ускорение %4.2f, ошибок: %d%n", threadsCount,
+                        locked ? "общий замок:" : "без замка:", rate, rate / singleThreadRate, errors.get());
+                if (!locked && errors.get() != 0) {
+                    throw new IllegalStateException("Concurrent reads returned wrong points: " + errors.get());
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
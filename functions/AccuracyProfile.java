@@ -0,0 +1,224 @@
+package functions;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// погрешность табулированной функции относительно эталонной на плотной равномерной выборке
+public final class AccuracyProfile {
+    private static final int WORST_COUNT = 8;
+
+    private final int samplesCount;
+    private final int skippedCount;
+    private final double maxError;
+    private final double meanError;
+    private final double rmsError;
+    private final double[] worstX;
+    private final double[] worstErrors;
+
+    private AccuracyProfile(Accumulator acc) {
+        this.samplesCount = acc.count;
+        this.skippedCount = acc.skipped;
+        this.maxError = acc.count == 0 ? Double.NaN : acc.worstErrors[0];
+        this.meanError = acc.count == 0 ? Double.NaN : acc.sum / acc.count;
+        this.rmsError = acc.count == 0 ? Double.NaN : Math.sqrt(acc.sumSquares / acc.count);
+        this.worstX = Arrays.copyOf(acc.worstX, acc.worstSize);
+        this.worstErrors = Arrays.copyOf(acc.worstErrors, acc.worstSize);
+    }
+
+    // один параллельный проход: сумма, сумма квадратов, максимум и худшие точки собираются вместе
+    static AccuracyProfile measure(Function reference, TabulatedFunction function,
+                                   double leftX, double rightX, int samples) {
+        if (samples < 2) {
+            throw new IllegalArgumentException("Samples count must be at least 2");
+        }
+        if (!(rightX > leftX)) {
+            throw new IllegalArgumentException("Empty interval [" + leftX + ", " + rightX + "]");
+        }
+        // снимок узлов: чтение из нескольких потоков не затрагивает внутреннее состояние таблицы
+        double[] xs = Segments.xValues(function);
+        double[] ys = Segments.yValues(function);
+        double step = (rightX - leftX) / (samples - 1);
+        double firstX = xs[0];
+        double lastX = xs[xs.length - 1];
+        Accumulator result = IntStream.range(0, samples).parallel().collect(Accumulator::new, (acc, i) -> {
+            double x = (i == samples - 1) ? rightX : leftX + i * step;
+            // за пределами таблицы интерполяция стала бы экстраполяцией, такие точки не оцениваются
+            if (x < firstX || x > lastX) {
+                acc.skipped++;
+                return;
+            }
+            double expected = reference.getFunctionValue(x);
+            int segment = Segments.find(xs, xs.length, x);
+            double actual = Segments.interpolate(xs, ys, segment, x);
+            acc.add(x, segment, Math.abs(expected - actual));
+        }, Accumulator::merge);
+        return new AccuracyProfile(result);
+    }
+
+    public int getSamplesCount() {
+        return samplesCount;
+    }
+
+    // точки вне области определения таблицы и точки, где эталон или таблица дали NaN
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public double getMeanError() {
+        return meanError;
+    }
+
+    public double getRmsError() {
+        return rmsError;
+    }
+
+    // x с наибольшей погрешностью, по убыванию погрешности; не больше одной точки на отрезок таблицы
+    public double[] getWorstX() {
+        return worstX.clone();
+    }
+
+    public double[] getWorstErrors() {
+        return worstErrors.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AccuracyProfile[samples=%d, max=%.3e, mean=%.3e, rms=%.3e, worst x=%s]",
+                samplesCount, maxError, meanError, rmsError, Arrays.toString(worstX));
+    }
+
+    // зависимость погрешности от числа точек: max error ~ C * n^(-order), подбор наименьшими квадратами в log-log
+    public static final class Convergence {
+        private final int[] pointsCounts;
+        private final AccuracyProfile[] profiles;
+        private final double order;
+        private final double constant;
+
+        Convergence(int[] pointsCounts, AccuracyProfile[] profiles) {
+            this.pointsCounts = pointsCounts.clone();
+            this.profiles = profiles;
+            double sx = 0;
+            double sy = 0;
+            double sxx = 0;
+            double sxy = 0;
+            int m = 0;
+            for (int i = 0; i < profiles.length; i++) {
+                double error = profiles[i].getMaxError();
+                if (error > 0 && Double.isFinite(error)) {
+                    double lx = Math.log(pointsCounts[i]);
+                    double ly = Math.log(error);
+                    sx += lx;
+                    sy += ly;
+                    sxx += lx * lx;
+                    sxy += lx * ly;
+                    m++;
+                }
+            }
+            double denominator = m * sxx - sx * sx;
+            if (m < 2 || denominator == 0) {
+                this.order = Double.NaN;
+                this.constant = Double.NaN;
+            } else {
+                double slope = (m * sxy - sx * sy) / denominator;
+                this.order = -slope;
+                this.constant = Math.exp((sy - slope * sx) / m);
+            }
+        }
+
+        public int[] getPointsCounts() {
+            return pointsCounts.clone();
+        }
+
+        public AccuracyProfile getProfile(int index) {
+            return profiles[index];
+        }
+
+        // порядок сходимости; для кусочно-линейной интерполяции гладкой функции около 2
+        public double getOrder() {
+            return order;
+        }
+
+        public double getConstant() {
+            return constant;
+        }
+
+        // оценка числа точек, при котором максимальная погрешность не превысит maxError
+        public int estimatePointsCount(double maxError) {
+            if (!(order > 0) || !(maxError > 0)) {
+                throw new IllegalStateException("Convergence order is not positive: " + order);
+            }
+            return (int) Math.min(Integer.MAX_VALUE, Math.ceil(Math.pow(constant / maxError, 1 / order)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Convergence[order=%.3f, constant=%.3e, points=%s]",
+                    order, constant, Arrays.toString(pointsCounts));
+        }
+    }
+
+    private static final class Accumulator {
+        private int count;
+        private int skipped;
+        private double sum;
+        private double sumSquares;
+        // худшие точки из разных отрезков, упорядоченные по убыванию погрешности
+        private final double[] worstX = new double[WORST_COUNT];
+        private final double[] worstErrors = new double[WORST_COUNT];
+        private final int[] worstSegments = new int[WORST_COUNT];
+        private int worstSize;
+
+        void add(double x, int segment, double error) {
+            if (Double.isNaN(error)) {
+                skipped++;
+                return;
+            }
+            count++;
+            sum += error;
+            sumSquares += error * error;
+            insertWorst(x, segment, error);
+        }
+
+        void merge(Accumulator other) {
+            count += other.count;
+            skipped += other.skipped;
+            sum += other.sum;
+            sumSquares += other.sumSquares;
+            for (int i = 0; i < other.worstSize; i++) {
+                insertWorst(other.worstX[i], other.worstSegments[i], other.worstErrors[i]);
+            }
+        }
+
+        // соседние точки одного пика попадают в один отрезок: от отрезка остаётся только худшая
+        private void insertWorst(double x, int segment, double error) {
+            int i = 0;
+            while (i < worstSize && worstSegments[i] != segment) {
+                i++;
+            }
+            if (i < worstSize) {
+                if (!(error > worstErrors[i])) {
+                    return;
+                }
+            } else if (worstSize < WORST_COUNT) {
+                worstSize++;
+            } else if (error > worstErrors[worstSize - 1]) {
+                i = worstSize - 1;
+            } else {
+                return;
+            }
+            while (i > 0 && worstErrors[i - 1] < error) {
+                worstErrors[i] = worstErrors[i - 1];
+                worstX[i] = worstX[i - 1];
+                worstSegments[i] = worstSegments[i - 1];
+                i--;
+            }
+            worstErrors[i] = error;
+            worstX[i] = x;
+            worstSegments[i] = segment;
+        }
+    }
+}
\ No newline at end of file
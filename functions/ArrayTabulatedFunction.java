@@ -7,6 +7,9 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
     private FunctionPoint[] points;
     private int pointsCount;
     private static final double EPSILON = 1e-10;
+    private transient SegmentAreaIndex integralIndex;
+    private transient RangeExtremumIndex extremumIndex;
+    private transient ListenerSupport listenerSupport;
     public ArrayTabulatedFunction(FunctionPoint[] points) {
         if (points.length < 2) {
             throw new IllegalArgumentException("At least 2 points required");
@@ -85,6 +88,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
         }
 
         points[index] = new FunctionPoint(point);
+        invalidateIndexes();
+        listeners().fireUpdated(index, index);
     }
 
     public double getPointX(int index) {
@@ -106,6 +111,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
         }
 
         points[index].setX(x);
+        invalidateIndexes();
+        listeners().fireUpdated(index, index);
     }
 
     public double getPointY(int index) {
@@ -116,6 +123,13 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
     public void setPointY(int index, double y) {
         checkIndex(index);
         points[index].setY(y);
+        if (integralIndex != null) {
+            integralIndex.updateY(index, y);
+        }
+        if (extremumIndex != null) {
+            extremumIndex.updateY(index, y);
+        }
+        listeners().fireUpdated(index, index);
     }
 
 
@@ -130,6 +144,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
 
         System.arraycopy(points, index + 1, points, index, pointsCount - index - 1);
         pointsCount--;
+        invalidateIndexes();
+        listeners().fireRemoved(index, index);
     }
 
     public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
@@ -154,6 +170,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
         System.arraycopy(points, insertIndex, points, insertIndex + 1, pointsCount - insertIndex);
         points[insertIndex] = new FunctionPoint(point);
         pointsCount++;
+        invalidateIndexes();
+        listeners().fireInserted(insertIndex, insertIndex);
     }
 
     private void checkIndex(int index) {
@@ -178,22 +196,112 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
         if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
             return Double.NaN;
         }
-        for (int i = 0; i < pointsCount; i++) {
-            if (Math.abs(points[i].getX() - x) < EPSILON) {
-                return points[i].getY();
-            }
+        return valueInSegment(findSegment(x), x);
+    }
+
+    // отрезок ищется один раз: по нему считаются и значение, и наклон
+    public DualNumber getFunctionValue(DualNumber x) {
+        double v = x.getValue();
+        if (v < getLeftDomainBorder() - EPSILON || v > getRightDomainBorder() + EPSILON) {
+            return DualNumber.nan();
         }
-        for (int i = 0; i < pointsCount - 1; i++) {
-            double x1 = points[i].getX();
-            double x2 = points[i + 1].getX();
-            if (x >= x1 - EPSILON && x <= x2 + EPSILON) {  //исправлено: добавлена проверка попадания в интервал перед return
-                double y1 = points[i].getY();
-                double y2 = points[i + 1].getY();
-                return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+        int i = findSegment(v);
+        double value = valueInSegment(i, v);
+        if (Double.isNaN(value)) {
+            return DualNumber.nan();
+        }
+        double slope = (points[i + 1].getY() - points[i].getY()) / (points[i + 1].getX() - points[i].getX());
+        return new DualNumber(value, slope * x.getDerivative());
+    }
+
+    // двоичный поиск, как Segments.find: последний отрезок, начало которого не правее x
+    private int findSegment(double x) {
+        int low = 0;
+        int high = pointsCount - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (points[mid].getX() <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
         }
+        return low;
+    }
+
+    // точное попадание в узел (с точностью EPSILON) возвращает его y, иначе линейная интерполяция
+    private double valueInSegment(int i, double x) {
+        double x1 = points[i].getX();
+        double x2 = points[i + 1].getX();
+        if (Math.abs(x1 - x) < EPSILON) {
+            return points[i].getY();
+        }
+        if (Math.abs(x2 - x) < EPSILON) {
+            return points[i + 1].getY();
+        }
+        double y1 = points[i].getY();
+        double y2 = points[i + 1].getY();
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public double getIntegral(double leftX, double rightX) {
+        if (integralIndex == null) {
+            integralIndex = new SegmentAreaIndex(this);
+        }
+        return integralIndex.integrate(leftX, rightX);
+    }
 
-        return Double.NaN;
+
+    public double getMinValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[1];
+    }
+
+
+    public double getMaxValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[1];
+    }
+
+
+    public double getArgMin(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[0];
+    }
+
+
+    public double getArgMax(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[0];
+    }
+
+
+    private RangeExtremumIndex getExtremumIndex() {
+        if (extremumIndex == null) {
+            extremumIndex = new RangeExtremumIndex(this);
+        }
+        return extremumIndex;
+    }
+
+
+    private void invalidateIndexes() {
+        integralIndex = null;
+        extremumIndex = null;
+    }
+
+    public long getModificationVersion() {
+        return listeners().getVersion();
+    }
+
+    public void addListener(TabulatedFunctionListener listener) {
+        listeners().add(listener);
+    }
+
+    public void removeListener(TabulatedFunctionListener listener) {
+        listeners().remove(listener);
+    }
+
+    private ListenerSupport listeners() {
+        if (listenerSupport == null) {
+            listenerSupport = new ListenerSupport(this);
+        }
+        return listenerSupport;
     }
 
     public int getPointsCount() {
@@ -0,0 +1,352 @@
+package functions;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+// табулированная функция с пониженной точностью хранения: x и y во float либо y в 16-битном квантованном виде
+public class CompactTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 5L;
+    private static final double EPSILON = 1e-10;
+    private static final int LEVELS = 65535;
+
+    public enum Precision { FLOAT32, QUANTIZED16 }
+
+    private final Precision precision;
+    private float[] xs;
+    private float[] ys;
+    private short[] codes;
+    private double offset;
+    private double scale;
+    private int pointsCount;
+    private double maxError;
+    private transient SegmentAreaIndex integralIndex;
+    private transient RangeExtremumIndex extremumIndex;
+    private transient ListenerSupport listenerSupport;
+
+    public CompactTabulatedFunction(TabulatedFunction function, Precision precision) {
+        this.precision = precision;
+        this.pointsCount = function.getPointsCount();
+        this.xs = new float[pointsCount];
+        double[] values = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = (float) function.getPointX(i);
+            values[i] = function.getPointY(i);
+            if (i > 0 && xs[i] <= xs[i - 1]) {
+                throw new IllegalArgumentException(
+                        "Points " + (i - 1) + " and " + i + " collapse when X is stored as float");
+            }
+        }
+        if (precision == Precision.FLOAT32) {
+            ys = new float[pointsCount];
+            for (int i = 0; i < pointsCount; i++) {
+                ys[i] = (float) values[i];
+            }
+        } else {
+            codes = new short[pointsCount];
+            quantize(values);
+        }
+        for (int i = 0; i < pointsCount; i++) {
+            maxError = Math.max(maxError, Math.abs(getFunctionValue(function.getPointX(i)) - values[i]));
+        }
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // максимальная достигнутая погрешность в узлах исходной функции (с учётом округления x)
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(xs[index], y(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        checkStorable(point.getY());
+        checkBounds(index, point.getX());
+        xs[index] = (float) point.getX();
+        storeY(index, point.getY());
+        invalidateIndexes();
+        listeners().fireUpdated(index, index);
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        checkBounds(index, x);
+        xs[index] = (float) x;
+        invalidateIndexes();
+        listeners().fireUpdated(index, index);
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setPointY(int index, double y) {
+        checkIndex(index);
+        checkStorable(y);
+        if (storeY(index, y)) {
+            invalidateIndexes();
+            listeners().fireUpdated(0, pointsCount - 1);
+            return;
+        }
+        if (integralIndex != null) {
+            integralIndex.updateY(index, y(index));
+        }
+        if (extremumIndex != null) {
+            extremumIndex.updateY(index, y(index));
+        }
+        listeners().fireUpdated(index, index);
+    }
+
+    public void deletePoint(int index) {
+        if (pointsCount <= 2) {
+            throw new IllegalStateException(
+                    "Cannot delete point: function must have at least 2 points. Current: " + pointsCount
+            );
+        }
+        checkIndex(index);
+        System.arraycopy(xs, index + 1, xs, index, pointsCount - index - 1);
+        if (ys != null) {
+            System.arraycopy(ys, index + 1, ys, index, pointsCount - index - 1);
+        } else {
+            System.arraycopy(codes, index + 1, codes, index, pointsCount - index - 1);
+        }
+        pointsCount--;
+        invalidateIndexes();
+        listeners().fireRemoved(index, index);
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        checkStorable(point.getY());
+        float x = (float) point.getX();
+        int insertIndex = 0;
+        while (insertIndex < pointsCount && xs[insertIndex] < x) {
+            insertIndex++;
+        }
+        // совпадение с точностью EPSILON, как у остальных таблиц, либо слияние соседей при округлении до float
+        for (int i = Math.max(0, insertIndex - 1); i <= Math.min(insertIndex, pointsCount - 1); i++) {
+            if (Math.abs(xs[i] - point.getX()) < EPSILON || xs[i] == x) {
+                throw new InappropriateFunctionPointException(
+                        "Point with X = " + point.getX() + " already exists at index " + i
+                );
+            }
+        }
+        if (pointsCount == xs.length) {
+            xs = Arrays.copyOf(xs, xs.length * 2);
+            if (ys != null) {
+                ys = Arrays.copyOf(ys, xs.length);
+            } else {
+                codes = Arrays.copyOf(codes, xs.length);
+            }
+        }
+        System.arraycopy(xs, insertIndex, xs, insertIndex + 1, pointsCount - insertIndex);
+        if (ys != null) {
+            System.arraycopy(ys, insertIndex, ys, insertIndex + 1, pointsCount - insertIndex);
+        } else {
+            System.arraycopy(codes, insertIndex, codes, insertIndex + 1, pointsCount - insertIndex);
+        }
+        xs[insertIndex] = x;
+        pointsCount++;
+        storeY(insertIndex, point.getY());
+        invalidateIndexes();
+        listeners().fireInserted(insertIndex, insertIndex);
+    }
+
+    public double getLeftDomainBorder() {
+        return xs[0];
+    }
+
+    public double getRightDomainBorder() {
+        return xs[pointsCount - 1];
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+            return Double.NaN;
+        }
+        int i = segment(x);
+        double x1 = xs[i];
+        double x2 = xs[i + 1];
+        double y1 = y(i);
+        double y2 = y(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public DualNumber getFunctionValue(DualNumber x) {
+        double value = getFunctionValue(x.getValue());
+        if (Double.isNaN(value)) {
+            return DualNumber.nan();
+        }
+        int i = segment(x.getValue());
+        double slope = (y(i + 1) - y(i)) / ((double) xs[i + 1] - xs[i]);
+        return new DualNumber(value, slope * x.getDerivative());
+    }
+
+    public double getIntegral(double leftX, double rightX) {
+        if (integralIndex == null) {
+            integralIndex = new SegmentAreaIndex(this);
+        }
+        return integralIndex.integrate(leftX, rightX);
+    }
+
+    public double getMinValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[1];
+    }
+
+    public double getMaxValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[1];
+    }
+
+    public double getArgMin(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[0];
+    }
+
+    public double getArgMax(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[0];
+    }
+
+    private RangeExtremumIndex getExtremumIndex() {
+        if (extremumIndex == null) {
+            extremumIndex = new RangeExtremumIndex(this);
+        }
+        return extremumIndex;
+    }
+
+    private void invalidateIndexes() {
+        integralIndex = null;
+        extremumIndex = null;
+    }
+
+    public long getModificationVersion() {
+        return listeners().getVersion();
+    }
+
+    public void addListener(TabulatedFunctionListener listener) {
+        listeners().add(listener);
+    }
+
+    public void removeListener(TabulatedFunctionListener listener) {
+        listeners().remove(listener);
+    }
+
+    private ListenerSupport listeners() {
+        if (listenerSupport == null) {
+            listenerSupport = new ListenerSupport(this);
+        }
+        return listenerSupport;
+    }
+
+    private int segment(double x) {
+        int low = 0;
+        int high = pointsCount - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (xs[mid] <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private double y(int index) {
+        return ys != null ? ys[index] : offset + (codes[index] + 32768) * scale;
+    }
+
+    // true, если пришлось перестроить шкалу квантования всей таблицы
+    private boolean storeY(int index, double y) {
+        if (ys != null) {
+            ys[index] = (float) y;
+            maxError = Math.max(maxError, Math.abs(ys[index] - y));
+            return false;
+        }
+        if (y >= offset && y <= offset + LEVELS * scale) {
+            codes[index] = code(y);
+            maxError = Math.max(maxError, Math.abs(y(index) - y));
+            return false;
+        }
+        double[] values = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            values[i] = (i == index) ? y : y(i);
+        }
+        quantize(values);
+        maxError += scale / 2;
+        return true;
+    }
+
+    private void quantize(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < pointsCount; i++) {
+            if (!Double.isFinite(values[i])) {
+                throw new IllegalArgumentException("Quantized storage requires finite Y values, got: " + values[i]);
+            }
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        offset = min;
+        // у постоянной таблицы шаг нулевой: любое другое значение не попадёт в диапазон и перестроит шкалу,
+        // а не округлится к ближайшему из произвольно выбранных уровней
+        scale = (max > min) ? (max - min) / LEVELS : 0;
+        for (int i = 0; i < pointsCount; i++) {
+            codes[i] = code(values[i]);
+        }
+    }
+
+    private short code(double y) {
+        return (short) ((scale == 0 ? 0 : Math.round((y - offset) / scale)) - 32768);
+    }
+
+    private void checkBounds(int index, double newX) throws InappropriateFunctionPointException {
+        checkIndex(index);
+        double leftBound = (index > 0) ? xs[index - 1] : -Double.MAX_VALUE;
+        double rightBound = (index < pointsCount - 1) ? xs[index + 1] : Double.MAX_VALUE;
+        float stored = (float) newX;
+        if (newX <= leftBound + EPSILON || newX >= rightBound - EPSILON || stored <= leftBound || stored >= rightBound) {
+            throw new InappropriateFunctionPointException(
+                    "New X coordinate " + newX + " would break point ordering. " +
+                            "Must be in (" + leftBound + ", " + rightBound + ")"
+            );
+        }
+    }
+
+    // проверка до любых изменений: иначе перестройка шкалы упала бы на полпути
+    private void checkStorable(double y) {
+        if (codes != null && !Double.isFinite(y)) {
+            throw new IllegalArgumentException("Quantized storage requires finite Y values, got: " + y);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Index " + index + " is out of bounds [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CompactTabulatedFunction[" + precision + ": ");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(xs[i]).append(", ").append(y(i)).append(")");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package functions;
+
+public final class DualNumber {
+    private final double value;
+    private final double derivative;
+
+    public DualNumber(double value, double derivative) {
+        this.value = value;
+        this.derivative = derivative;
+    }
+
+    public static DualNumber variable(double x) {
+        return new DualNumber(x, 1.0);
+    }
+
+    public static DualNumber constant(double c) {
+        return new DualNumber(c, 0.0);
+    }
+
+    public static DualNumber nan() {
+        return new DualNumber(Double.NaN, Double.NaN);
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getDerivative() {
+        return derivative;
+    }
+
+    public boolean isNaN() {
+        return Double.isNaN(value);
+    }
+
+    public DualNumber add(DualNumber other) {
+        return new DualNumber(value + other.value, derivative + other.derivative);
+    }
+
+    public DualNumber add(double c) {
+        return new DualNumber(value + c, derivative);
+    }
+
+    public DualNumber multiply(DualNumber other) {
+        return new DualNumber(value * other.value, derivative * other.value + value * other.derivative);
+    }
+
+    public DualNumber multiply(double c) {
+        return new DualNumber(value * c, derivative * c);
+    }
+
+    public DualNumber divide(double c) {
+        return new DualNumber(value / c, derivative / c);
+    }
+
+    public DualNumber pow(double power) {
+        if (power == 0) {
+            return new DualNumber(1.0, 0.0);
+        }
+        return new DualNumber(Math.pow(value, power), power * Math.pow(value, power - 1) * derivative);
+    }
+
+    public DualNumber exp() {
+        double e = Math.exp(value);
+        return new DualNumber(e, e * derivative);
+    }
+
+    public DualNumber log() {
+        return new DualNumber(Math.log(value), derivative / value);
+    }
+
+    public DualNumber sin() {
+        return new DualNumber(Math.sin(value), Math.cos(value) * derivative);
+    }
+
+    public DualNumber cos() {
+        return new DualNumber(Math.cos(value), -Math.sin(value) * derivative);
+    }
+
+    public DualNumber tan() {
+        double cos = Math.cos(value);
+        return new DualNumber(Math.tan(value), derivative / (cos * cos));
+    }
+
+    @Override
+    public String toString() {
+        return "(" + value + ", " + derivative + ")";
+    }
+}
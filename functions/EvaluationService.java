@@ -0,0 +1,178 @@
+package functions;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// собирает асинхронные запросы в пакеты по размеру или по времени и вычисляет каждый пакет одним вызовом
+// Function.getFunctionValues: выражения из functions.meta считаются по столбцам, а не точка за точкой
+// для дешёвых функций накладные расходы на запрос больше выигрыша от пакета (замеры в Benchmarks)
+public class EvaluationService implements AutoCloseable {
+    private final Function function;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService handlers;
+    private final Thread dispatcher;
+    // проверка closed и постановка в очередь атомарны относительно close: иначе запрос мог попасть
+    // в очередь уже после того, как диспетчер её опустошил, и никогда не завершиться
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    public EvaluationService(Function function, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, got: " + maxBatchSize);
+        }
+        this.function = function;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.handlers = newHandlerExecutor();
+        this.dispatcher = new Thread(this::dispatch, "evaluation-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public CompletableFuture<double[]> evaluate(double[] xs) {
+        CompletableFuture<double[]> result = new CompletableFuture<>();
+        Request request = new Request(xs.clone(), result);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Evaluation service is closed"));
+                return result;
+            }
+            queue.add(request);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public CompletableFuture<Double> evaluate(double x) {
+        return evaluate(new double[]{x}).thenApply(values -> values[0]);
+    }
+
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handlers.shutdown();
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Request first = queue.take();
+                batch.add(first);
+                int size = first.xs.length;
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (size < maxBatchSize) {
+                    Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.xs.length;
+                }
+            } catch (InterruptedException e) {
+                if (closed) {
+                    queue.drainTo(batch);
+                    submit(batch);
+                    return;
+                }
+            }
+            submit(batch);
+            batch = new ArrayList<>();
+        }
+    }
+
+    private void submit(List<Request> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            handlers.execute(() -> evaluateBatch(batch));
+        } catch (RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void evaluateBatch(List<Request> batch) {
+        int total = 0;
+        for (Request request : batch) {
+            total += request.xs.length;
+        }
+        double[] xs = new double[total];
+        int position = 0;
+        for (Request request : batch) {
+            System.arraycopy(request.xs, 0, xs, position, request.xs.length);
+            position += request.xs.length;
+        }
+        double[] ys = new double[total];
+        try {
+            function.getFunctionValues(xs, ys);
+        } catch (Throwable e) {
+            fail(batch, e);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return;
+        }
+        position = 0;
+        for (Request request : batch) {
+            double[] values = new double[request.xs.length];
+            System.arraycopy(ys, position, values, 0, values.length);
+            position += values.length;
+            request.result.complete(values);
+        }
+    }
+
+    private static void fail(List<Request> batch, Throwable cause) {
+        for (Request request : batch) {
+            request.result.completeExceptionally(cause);
+        }
+    }
+
+    // виртуальные потоки, если они есть в текущей JVM (Java 21+), иначе обычный кэширующий пул
+    private static ExecutorService newHandlerExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "evaluation-handler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class Request {
+        final double[] xs;
+        final CompletableFuture<double[]> result;
+
+        Request(double[] xs, CompletableFuture<double[]> result) {
+            this.xs = xs;
+            this.result = result;
+        }
+    }
+}
\ No newline at end of file
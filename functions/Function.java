@@ -4,4 +4,31 @@ public interface Function {
     double getLeftDomainBorder();
     double getRightDomainBorder();
     double getFunctionValue(double x);
+    // значение и производная за один проход (forward-mode, дуальные числа);
+    // по умолчанию производная приближается центральной разностью, точные реализации переопределяют метод
+    default DualNumber getFunctionValue(DualNumber x) {
+        double v = x.getValue();
+        double value = getFunctionValue(v);
+        if (Double.isNaN(value)) {
+            return DualNumber.nan();
+        }
+        double h = Math.cbrt(Math.ulp(1.0)) * Math.max(1.0, Math.abs(v));
+        double slope = (getFunctionValue(v + h) - getFunctionValue(v - h)) / (2 * h);
+        return new DualNumber(value, slope * x.getDerivative());
+    }
+
+    // значения во всех точках xs (ys не короче xs и может совпадать с ним); узлы functions.meta
+    // переопределяют метод и считают выражение по столбцам: один вызов на узел за весь массив
+    default void getFunctionValues(double[] xs, double[] ys) {
+        if (ys.length < xs.length) {
+            throw new IllegalArgumentException("Output array is shorter than input: " + ys.length + " < " + xs.length);
+        }
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = getFunctionValue(xs[i]);
+        }
+    }
+
+    default DualNumber valueAndDerivative(double x) {
+        return getFunctionValue(DualNumber.variable(x));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package functions;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+// x -> f(x) для реактивных потоков: значения собираются в пакеты, пакеты считаются параллельно,
+// результаты выдаются в исходном порядке; у источника запрашивается не больше batchSize * parallelism значений сверх выданных.
+// Неполный пакет уходит не позже чем через maxDelay после своего первого значения, даже если источник замолчал
+public class FunctionProcessor implements Flow.Processor<Double, Double> {
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+
+    private final Function function;
+    private final int batchSize;
+    private final int parallelism;
+    private final long maxDelayNanos;
+    private final Executor executor;
+    private final SubmissionPublisher<Double> publisher;
+    private Flow.Subscription upstream;
+    private double[] batch;
+    private int batchCount;
+    // номер собираемого пакета: таймер отправляет пакет, только если тот ещё не ушёл по размеру
+    private long batchNumber;
+    private CompletableFuture<Void> emitted = CompletableFuture.completedFuture(null);
+
+    public FunctionProcessor(Function function, int batchSize, int parallelism) {
+        this(function, batchSize, parallelism, ForkJoinPool.commonPool());
+    }
+
+    public FunctionProcessor(Function function, int batchSize, int parallelism, Executor executor) {
+        this(function, batchSize, parallelism, DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS, executor);
+    }
+
+    public FunctionProcessor(Function function, int batchSize, int parallelism,
+                             long maxDelay, TimeUnit unit, Executor executor) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Batch size and parallelism must be positive, got: " + batchSize + ", " + parallelism);
+        }
+        this.function = function;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.executor = executor;
+        this.publisher = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+        this.batch = new double[batchSize];
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Double> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request((long) batchSize * parallelism);
+    }
+
+    @Override
+    public synchronized void onNext(Double x) {
+        batch[batchCount++] = x;
+        if (batchCount == batchSize) {
+            dispatch();
+        } else if (batchCount == 1) {
+            long number = batchNumber;
+            CompletableFuture.delayedExecutor(maxDelayNanos, TimeUnit.NANOSECONDS, executor)
+                    .execute(() -> flush(number));
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        emitted.whenComplete((ignored, error) -> publisher.closeExceptionally(throwable));
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        if (batchCount > 0) {
+            dispatch();
+        }
+        emitted.whenComplete((ignored, error) -> {
+            if (error == null) {
+                publisher.close();
+            }
+        });
+    }
+
+    private synchronized void flush(long number) {
+        if (number == batchNumber && batchCount > 0) {
+            dispatch();
+        }
+    }
+
+    private void dispatch() {
+        double[] xs = Arrays.copyOf(batch, batchCount);
+        batchCount = 0;
+        batchNumber++;
+        CompletableFuture<double[]> values = CompletableFuture.supplyAsync(() -> {
+            double[] ys = new double[xs.length];
+            function.getFunctionValues(xs, ys);
+            return ys;
+        }, executor);
+        emitted = emitted.thenCombine(values, (ignored, ys) -> {
+            emit(ys);
+            upstream.request(ys.length);
+            return null;
+        });
+        emitted.whenComplete((ignored, error) -> {
+            if (error != null && !publisher.isClosed()) {
+                upstream.cancel();
+                publisher.closeExceptionally(error);
+            }
+        });
+    }
+
+    // submit блокируется, пока подписчик не разберёт буфер, — так обратное давление доходит до источника;
+    // managedBlock даёт пулу fork/join запустить замену занятому потоку, чтобы не остановить общий пул
+    private void emit(double[] ys) {
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                private int next;
+
+                @Override
+                public boolean block() {
+                    while (next < ys.length) {
+                        publisher.submit(ys[next++]);
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return next == ys.length;
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+}
\ No newline at end of file
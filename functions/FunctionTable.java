@@ -0,0 +1,334 @@
+package functions;
+
+import java.util.Arrays;
+
+// несколько функций на общей сетке: один столбец x и k столбцов y;
+// массивы столбцов держат запас ёмкости, вставка и удаление сдвигают их на месте, как в ArrayTabulatedFunction
+public class FunctionTable {
+    private static final double EPSILON = 1e-10;
+
+    private double[] xs;
+    private double[][] ys;
+    private int pointsCount;
+    private final Column[] columns;
+
+    FunctionTable(double[] xs, double[][] ys) {
+        if (xs.length < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2");
+        }
+        for (int i = 1; i < xs.length; i++) {
+            if (xs[i] <= xs[i - 1] + EPSILON) {
+                throw new IllegalArgumentException("X values must be strictly increasing at index " + i);
+            }
+        }
+        for (double[] column : ys) {
+            if (column.length != xs.length) {
+                throw new IllegalArgumentException("Column length " + column.length + " differs from " + xs.length);
+            }
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.pointsCount = xs.length;
+        this.columns = new Column[ys.length];
+        for (int k = 0; k < ys.length; k++) {
+            columns[k] = new Column(k);
+        }
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public int getColumnsCount() {
+        return ys.length;
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public double getPointY(int column, int index) {
+        checkIndex(index);
+        return ys[column][index];
+    }
+
+    public TabulatedFunction getColumn(int column) {
+        if (column < 0 || column >= columns.length) {
+            throw new IllegalArgumentException("Column " + column + " is out of bounds [0, " + (columns.length - 1) + "]");
+        }
+        return columns[column];
+    }
+
+    public double getLeftDomainBorder() {
+        return xs[0];
+    }
+
+    public double getRightDomainBorder() {
+        return xs[pointsCount - 1];
+    }
+
+    public double[] getFunctionValues(double x) {
+        double[] values = new double[ys.length];
+        getFunctionValues(x, values);
+        return values;
+    }
+
+    // отрезок ищется один раз, интерполируются все k столбцов
+    public void getFunctionValues(double x, double[] values) {
+        if (values.length < ys.length) {
+            throw new IllegalArgumentException("Output array is shorter than columns count " + ys.length);
+        }
+        if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+            Arrays.fill(values, 0, ys.length, Double.NaN);
+            return;
+        }
+        int i = Segments.find(xs, pointsCount, x);
+        double t = (x - xs[i]) / (xs[i + 1] - xs[i]);
+        for (int k = 0; k < ys.length; k++) {
+            double[] column = ys[k];
+            values[k] = column[i] + (column[i + 1] - column[i]) * t;
+        }
+    }
+
+    double[] xColumn() {
+        return Arrays.copyOf(xs, pointsCount);
+    }
+
+    double[] yColumn(int column) {
+        return Arrays.copyOf(ys[column], pointsCount);
+    }
+
+    // x общие для всех столбцов: сдвиг узла меняет каждую функцию таблицы
+    private void checkMovableX(int index, double x) throws InappropriateFunctionPointException {
+        checkIndex(index);
+        double leftBound = (index > 0) ? xs[index - 1] : -Double.MAX_VALUE;
+        double rightBound = (index < pointsCount - 1) ? xs[index + 1] : Double.MAX_VALUE;
+        if (x <= leftBound + EPSILON || x >= rightBound - EPSILON) {
+            throw new InappropriateFunctionPointException(
+                    "New X coordinate " + x + " would break point ordering. " +
+                            "Must be in (" + leftBound + ", " + rightBound + ")"
+            );
+        }
+    }
+
+    // новый узел сетки: в столбце column получает y, в остальных - значение их функции в x,
+    // так что прочие функции таблицы не меняются (за пределами сетки - продолжение крайнего отрезка)
+    private void insertPoint(int column, FunctionPoint point) throws InappropriateFunctionPointException {
+        double x = point.getX();
+        // первый узел, не левее x - EPSILON
+        int insertIndex = 0;
+        int high = pointsCount;
+        while (insertIndex < high) {
+            int middle = (insertIndex + high) >>> 1;
+            if (xs[middle] < x - EPSILON) {
+                insertIndex = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (insertIndex < pointsCount && Math.abs(xs[insertIndex] - x) < EPSILON) {
+            throw new InappropriateFunctionPointException(
+                    "Point with X = " + x + " already exists at index " + insertIndex
+            );
+        }
+        if (pointsCount == xs.length) {
+            xs = Arrays.copyOf(xs, xs.length * 2);
+            for (int k = 0; k < ys.length; k++) {
+                ys[k] = Arrays.copyOf(ys[k], xs.length);
+            }
+        }
+        int segment = Math.max(0, Math.min(insertIndex - 1, pointsCount - 2));
+        for (int k = 0; k < ys.length; k++) {
+            double y = (k == column) ? point.getY() : Segments.interpolate(xs, ys[k], segment, x);
+            System.arraycopy(ys[k], insertIndex, ys[k], insertIndex + 1, pointsCount - insertIndex);
+            ys[k][insertIndex] = y;
+        }
+        System.arraycopy(xs, insertIndex, xs, insertIndex + 1, pointsCount - insertIndex);
+        xs[insertIndex] = x;
+        pointsCount++;
+        // индексы точек сдвинулись во всех столбцах, поэтому уведомляется каждый
+        for (Column c : columns) {
+            c.invalidateIndexes();
+            c.listenerSupport.fireInserted(insertIndex, insertIndex);
+        }
+    }
+
+    private void removePoint(int index) {
+        if (pointsCount <= 2) {
+            throw new IllegalStateException(
+                    "Cannot delete point: function must have at least 2 points. Current: " + pointsCount
+            );
+        }
+        checkIndex(index);
+        for (double[] column : ys) {
+            System.arraycopy(column, index + 1, column, index, pointsCount - index - 1);
+        }
+        System.arraycopy(xs, index + 1, xs, index, pointsCount - index - 1);
+        pointsCount--;
+        for (Column c : columns) {
+            c.invalidateIndexes();
+            c.listenerSupport.fireRemoved(index, index);
+        }
+    }
+
+    private void gridUpdated(int index) {
+        for (Column c : columns) {
+            c.invalidateIndexes();
+            c.listenerSupport.fireUpdated(index, index);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Index " + index + " is out of bounds [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    // столбец как табулированная функция; изменения x и числа точек проходят в таблицу и видны во всех столбцах
+    private final class Column implements TabulatedFunction {
+        private final int column;
+        private final ListenerSupport listenerSupport = new ListenerSupport(this);
+        private SegmentAreaIndex integralIndex;
+        private RangeExtremumIndex extremumIndex;
+
+        Column(int column) {
+            this.column = column;
+        }
+
+        public int getPointsCount() {
+            return pointsCount;
+        }
+
+        public FunctionPoint getPoint(int index) {
+            checkIndex(index);
+            return new FunctionPoint(xs[index], ys[column][index]);
+        }
+
+        public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+            checkMovableX(index, point.getX());
+            xs[index] = point.getX();
+            ys[column][index] = point.getY();
+            gridUpdated(index);
+        }
+
+        public double getPointX(int index) {
+            return FunctionTable.this.getPointX(index);
+        }
+
+        public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+            checkMovableX(index, x);
+            xs[index] = x;
+            gridUpdated(index);
+        }
+
+        public double getPointY(int index) {
+            return FunctionTable.this.getPointY(column, index);
+        }
+
+        public void setPointY(int index, double y) {
+            checkIndex(index);
+            ys[column][index] = y;
+            if (integralIndex != null) {
+                integralIndex.updateY(index, y);
+            }
+            if (extremumIndex != null) {
+                extremumIndex.updateY(index, y);
+            }
+            listenerSupport.fireUpdated(index, index);
+        }
+
+        public void deletePoint(int index) {
+            removePoint(index);
+        }
+
+        public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+            insertPoint(column, point);
+        }
+
+        public double getLeftDomainBorder() {
+            return FunctionTable.this.getLeftDomainBorder();
+        }
+
+        public double getRightDomainBorder() {
+            return FunctionTable.this.getRightDomainBorder();
+        }
+
+        public double getFunctionValue(double x) {
+            if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+                return Double.NaN;
+            }
+            return Segments.interpolate(xs, ys[column], Segments.find(xs, pointsCount, x), x);
+        }
+
+        public DualNumber getFunctionValue(DualNumber x) {
+            double value = getFunctionValue(x.getValue());
+            if (Double.isNaN(value)) {
+                return DualNumber.nan();
+            }
+            int i = Segments.find(xs, pointsCount, x.getValue());
+            double slope = (ys[column][i + 1] - ys[column][i]) / (xs[i + 1] - xs[i]);
+            return new DualNumber(value, slope * x.getDerivative());
+        }
+
+        public double getIntegral(double leftX, double rightX) {
+            if (integralIndex == null) {
+                integralIndex = new SegmentAreaIndex(this);
+            }
+            return integralIndex.integrate(leftX, rightX);
+        }
+
+        public double getMinValue(double leftX, double rightX) {
+            return getExtremumIndex().extremum(leftX, rightX, false)[1];
+        }
+
+        public double getMaxValue(double leftX, double rightX) {
+            return getExtremumIndex().extremum(leftX, rightX, true)[1];
+        }
+
+        public double getArgMin(double leftX, double rightX) {
+            return getExtremumIndex().extremum(leftX, rightX, false)[0];
+        }
+
+        public double getArgMax(double leftX, double rightX) {
+            return getExtremumIndex().extremum(leftX, rightX, true)[0];
+        }
+
+        private void invalidateIndexes() {
+            integralIndex = null;
+            extremumIndex = null;
+        }
+
+        private RangeExtremumIndex getExtremumIndex() {
+            if (extremumIndex == null) {
+                extremumIndex = new RangeExtremumIndex(this);
+            }
+            return extremumIndex;
+        }
+
+        public long getModificationVersion() {
+            return listenerSupport.getVersion();
+        }
+
+        public void addListener(TabulatedFunctionListener listener) {
+            listenerSupport.add(listener);
+        }
+
+        public void removeListener(TabulatedFunctionListener listener) {
+            listenerSupport.remove(listener);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("FunctionTable.Column[" + column + ": ");
+            for (int i = 0; i < pointsCount; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append("(").append(xs[i]).append(", ").append(ys[column][i]).append(")");
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+}
\ No newline at end of file
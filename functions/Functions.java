@@ -2,15 +2,24 @@ package functions;
 
 import functions.meta.*;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 public final class Functions {
     private Functions() {
     }
 
     public static Function shift(Function f, double shiftX, double shiftY) {
+        if (f instanceof PeriodicTabulatedFunction) {
+            return ((PeriodicTabulatedFunction) f).shift(shiftX, shiftY);
+        }
         return new Shift(f, shiftX, shiftY);
     }
 
     public static Function scale(Function f, double scaleX, double scaleY) {
+        if (f instanceof PeriodicTabulatedFunction) {
+            return ((PeriodicTabulatedFunction) f).scale(scaleX, scaleY);
+        }
         return new Scale(f, scaleX, scaleY);
     }
 
@@ -29,4 +38,85 @@ public final class Functions {
     public static Function composition(Function f1, Function f2) {
         return new Composition(f1, f2);
     }
+
+    public static Instrumented instrument(Function f, String name) {
+        return new Instrumented(f, name);
+    }
+
+    public static AutoTabulated autoTabulate(Function f, double maxError) {
+        return new AutoTabulated(f, maxError);
+    }
+
+    // адаптивный метод Симпсона, ветви рекурсии считаются параллельно в ForkJoinPool
+    public static double integral(Function f, double leftX, double rightX, double precision) {
+        if (leftX < f.getLeftDomainBorder() || rightX > f.getRightDomainBorder()) {
+            throw new IllegalArgumentException("Integration interval is outside function domain");
+        }
+        if (precision <= 0) {
+            throw new IllegalArgumentException("Precision must be positive, got: " + precision);
+        }
+        if (leftX > rightX) {
+            return -integral(f, rightX, leftX, precision);
+        }
+        double fLeft = f.getFunctionValue(leftX);
+        double fRight = f.getFunctionValue(rightX);
+        double fMiddle = f.getFunctionValue((leftX + rightX) / 2);
+        double whole = (rightX - leftX) / 6 * (fLeft + 4 * fMiddle + fRight);
+        return ForkJoinPool.commonPool().invoke(
+                new SimpsonTask(f, leftX, rightX, fLeft, fMiddle, fRight, whole, precision, 0));
+    }
+
+    private static final class SimpsonTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 6L;
+        private static final int MAX_DEPTH = 50;
+        private static final int PARALLEL_DEPTH = 10;
+        private final Function f;
+        private final double left;
+        private final double right;
+        private final double fLeft;
+        private final double fMiddle;
+        private final double fRight;
+        private final double whole;
+        private final double precision;
+        private final int depth;
+
+        SimpsonTask(Function f, double left, double right, double fLeft, double fMiddle, double fRight,
+                    double whole, double precision, int depth) {
+            this.f = f;
+            this.left = left;
+            this.right = right;
+            this.fLeft = fLeft;
+            this.fMiddle = fMiddle;
+            this.fRight = fRight;
+            this.whole = whole;
+            this.precision = precision;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Double compute() {
+            double middle = (left + right) / 2;
+            double fLeftMiddle = f.getFunctionValue((left + middle) / 2);
+            double fRightMiddle = f.getFunctionValue((middle + right) / 2);
+            double leftPart = (middle - left) / 6 * (fLeft + 4 * fLeftMiddle + fMiddle);
+            double rightPart = (right - middle) / 6 * (fMiddle + 4 * fRightMiddle + fRight);
+            double delta = leftPart + rightPart - whole;
+            if (Double.isNaN(delta)) {
+                return Double.NaN;
+            }
+            if (depth >= MAX_DEPTH || Math.abs(delta) <= 15 * precision) {
+                return leftPart + rightPart + delta / 15;
+            }
+            SimpsonTask leftTask = new SimpsonTask(f, left, middle, fLeft, fLeftMiddle, fMiddle,
+                    leftPart, precision / 2, depth + 1);
+            SimpsonTask rightTask = new SimpsonTask(f, middle, right, fMiddle, fRightMiddle, fRight,
+                    rightPart, precision / 2, depth + 1);
+            if (depth >= PARALLEL_DEPTH) {
+                return leftTask.compute() + rightTask.compute();
+            }
+            leftTask.fork();
+            double rightValue = rightTask.compute();
+            return leftTask.join() + rightValue;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package functions;
+
+final class IndexedPointCursor implements PointCursor {
+    private final TabulatedFunction function;
+    private final int end;
+    private int index;
+
+    IndexedPointCursor(TabulatedFunction function, int fromIndex) {
+        this.function = function;
+        this.end = function.getPointsCount();
+        this.index = fromIndex - 1;
+    }
+
+    public boolean next() {
+        if (index + 1 >= end) {
+            return false;
+        }
+        index++;
+        return true;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public double x() {
+        return function.getPointX(index);
+    }
+
+    public double y() {
+        return function.getPointY(index);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,289 @@
+package functions;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+// равномерная сетка, значения исходной функции вычисляются блоками при первом обращении
+public class LazyTabulatedFunction implements TabulatedFunction {
+    private static final int BLOCK_SIZE = 1024;
+    private static final double EPSILON = 1e-10;
+    private final Function function;
+    private final double leftX;
+    private final double step;
+    private final int pointsCount;
+    private final AtomicReferenceArray<double[]> blocks;
+    private final ListenerSupport listenerSupport = new ListenerSupport(this);
+    // после изменения сетки (setPointX, addPoint, deletePoint) функция целиком переходит в обычную таблицу
+    private volatile ArrayTabulatedFunction materialized;
+    private SegmentAreaIndex integralIndex;
+    private RangeExtremumIndex extremumIndex;
+
+    public LazyTabulatedFunction(Function function, double leftX, double rightX, int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2, got: " + pointsCount);
+        }
+        if (rightX - leftX < EPSILON) {
+            throw new IllegalArgumentException(
+                    "Left border must be less than right border. Got: leftX=" + leftX + ", rightX=" + rightX
+            );
+        }
+        this.function = function;
+        this.leftX = leftX;
+        this.step = (rightX - leftX) / (pointsCount - 1);
+        this.pointsCount = pointsCount;
+        this.blocks = new AtomicReferenceArray<>((pointsCount + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    public int getMaterializedBlocksCount() {
+        int count = 0;
+        for (int i = 0; i < blocks.length(); i++) {
+            if (blocks.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // заранее вычисляет все блоки, покрывающие [fromX, toX], параллельно
+    public void prefetch(double fromX, double toX) {
+        if (materialized != null) {
+            return;
+        }
+        int from = Math.max(0, (int) ((fromX - leftX) / step)) / BLOCK_SIZE;
+        int to = Math.min(pointsCount - 1, (int) Math.ceil((toX - leftX) / step)) / BLOCK_SIZE;
+        IntStream.rangeClosed(from, to).parallel().forEach(this::block);
+    }
+
+    public int getPointsCount() {
+        ArrayTabulatedFunction delegate = materialized;
+        return delegate != null ? delegate.getPointsCount() : pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            return delegate.getPoint(index);
+        }
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        if (materialized == null && index >= 0 && index < pointsCount && point.getX() == x(index)) {
+            setPointY(index, point.getY());
+            return;
+        }
+        materialize().setPoint(index, point);
+        invalidateIndexes();
+        listenerSupport.fireUpdated(index, index);
+    }
+
+    public double getPointX(int index) {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            return delegate.getPointX(index);
+        }
+        checkIndex(index);
+        return x(index);
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        materialize().setPointX(index, x);
+        invalidateIndexes();
+        listenerSupport.fireUpdated(index, index);
+    }
+
+    public double getPointY(int index) {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            return delegate.getPointY(index);
+        }
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setPointY(int index, double y) {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            delegate.setPointY(index, y);
+        } else {
+            checkIndex(index);
+            block(index / BLOCK_SIZE)[index % BLOCK_SIZE] = y;
+        }
+        if (integralIndex != null) {
+            integralIndex.updateY(index, y);
+        }
+        if (extremumIndex != null) {
+            extremumIndex.updateY(index, y);
+        }
+        listenerSupport.fireUpdated(index, index);
+    }
+
+    public void deletePoint(int index) {
+        materialize().deletePoint(index);
+        invalidateIndexes();
+        listenerSupport.fireRemoved(index, index);
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        ArrayTabulatedFunction delegate = materialize();
+        delegate.addPoint(point);
+        int index = 0;
+        while (delegate.getPointX(index) < point.getX() - EPSILON) {
+            index++;
+        }
+        invalidateIndexes();
+        listenerSupport.fireInserted(index, index);
+    }
+
+    public double getLeftDomainBorder() {
+        ArrayTabulatedFunction delegate = materialized;
+        return delegate != null ? delegate.getLeftDomainBorder() : leftX;
+    }
+
+    public double getRightDomainBorder() {
+        ArrayTabulatedFunction delegate = materialized;
+        return delegate != null ? delegate.getRightDomainBorder() : x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            return delegate.getFunctionValue(x);
+        }
+        if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+            return Double.NaN;
+        }
+        int i = segment(x);
+        double x1 = x(i);
+        double x2 = x(i + 1);
+        if (Math.abs(x - x1) < EPSILON) {
+            return y(i);
+        }
+        if (Math.abs(x - x2) < EPSILON) {
+            return y(i + 1);
+        }
+        double y1 = y(i);
+        return y1 + (y(i + 1) - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public DualNumber getFunctionValue(DualNumber x) {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            return delegate.getFunctionValue(x);
+        }
+        double value = getFunctionValue(x.getValue());
+        if (Double.isNaN(value)) {
+            return DualNumber.nan();
+        }
+        int i = segment(x.getValue());
+        double slope = (y(i + 1) - y(i)) / (x(i + 1) - x(i));
+        return new DualNumber(value, slope * x.getDerivative());
+    }
+
+    public double getIntegral(double leftX, double rightX) {
+        if (integralIndex == null) {
+            integralIndex = new SegmentAreaIndex(this);
+        }
+        return integralIndex.integrate(leftX, rightX);
+    }
+
+    public double getMinValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[1];
+    }
+
+    public double getMaxValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[1];
+    }
+
+    public double getArgMin(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[0];
+    }
+
+    public double getArgMax(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[0];
+    }
+
+    public long getModificationVersion() {
+        return listenerSupport.getVersion();
+    }
+
+    public void addListener(TabulatedFunctionListener listener) {
+        listenerSupport.add(listener);
+    }
+
+    public void removeListener(TabulatedFunctionListener listener) {
+        listenerSupport.remove(listener);
+    }
+
+    private RangeExtremumIndex getExtremumIndex() {
+        if (extremumIndex == null) {
+            extremumIndex = new RangeExtremumIndex(this);
+        }
+        return extremumIndex;
+    }
+
+    private void invalidateIndexes() {
+        integralIndex = null;
+        extremumIndex = null;
+    }
+
+    private synchronized ArrayTabulatedFunction materialize() {
+        if (materialized == null) {
+            double[] values = new double[pointsCount];
+            for (int i = 0; i < pointsCount; i++) {
+                values[i] = y(i);
+            }
+            FunctionPoint[] points = new FunctionPoint[pointsCount];
+            for (int i = 0; i < pointsCount; i++) {
+                points[i] = new FunctionPoint(x(i), values[i]);
+            }
+            materialized = new ArrayTabulatedFunction(points);
+        }
+        return materialized;
+    }
+
+    private int segment(double x) {
+        int i = (int) ((x - leftX) / step);
+        return Math.max(0, Math.min(i, pointsCount - 2));
+    }
+
+    private double x(int index) {
+        return leftX + index * step;
+    }
+
+    private double y(int index) {
+        return block(index / BLOCK_SIZE)[index % BLOCK_SIZE];
+    }
+
+    private double[] block(int number) {
+        double[] block = blocks.get(number);
+        if (block != null) {
+            return block;
+        }
+        int from = number * BLOCK_SIZE;
+        double[] values = new double[Math.min(BLOCK_SIZE, pointsCount - from)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = function.getFunctionValue(x(from + i));
+        }
+        return blocks.compareAndSet(number, null, values) ? values : blocks.get(number);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Index " + index + " is out of bounds [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    @Override
+    public String toString() {
+        ArrayTabulatedFunction delegate = materialized;
+        if (delegate != null) {
+            return delegate.toString();
+        }
+        return "LazyTabulatedFunction[" + leftX + ", " + x(pointsCount - 1) + ", " + pointsCount + " points, "
+                + getMaterializedBlocksCount() + "/" + blocks.length() + " blocks evaluated]";
+    }
+}
\ No newline at end of file
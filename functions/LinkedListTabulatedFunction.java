@@ -1,6 +1,7 @@
 package functions;
 
 import java.io.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class LinkedListTabulatedFunction implements TabulatedFunction, Externalizable {
     private static final long serialVersionUID = 3L;
@@ -25,16 +26,65 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
 
     private FunctionNode head;
     private int pointsCount;
-    private FunctionNode lastAccessedNode;
-    private int lastAccessedIndex;
+    // пальцы потоков (последний найденный узел), сверяемые с версией структуры списка: параллельное чтение
+    // без писателей не требует блокировок; пальцы хранятся в самом списке, а не в ThreadLocal, иначе
+    // запись потока через палец удерживала бы список; ячейку занимает один поток и пишет в неё только он,
+    // ячейка умершего потока переходит к следующему; потоку без свободной ячейки пальца нет
+    private final transient AtomicReferenceArray<Finger> fingers = new AtomicReferenceArray<>(FINGER_SLOTS);
+    private static final int FINGER_SLOTS = 32;
+    private static final int FINGER_PROBES = 4;
+    private volatile int structureVersion;
     private static final double EPSILON = 1e-10;
+    private transient SegmentAreaIndex integralIndex;
+    private transient RangeExtremumIndex extremumIndex;
+    private final ListenerSupport listenerSupport = new ListenerSupport(this);
     public LinkedListTabulatedFunction() {
         head = new FunctionNode();
         head.prev = head;
         head.next = head;
         pointsCount = 0;
-        lastAccessedNode = head;
-        lastAccessedIndex = -1;
+    }
+
+    // изменяемые поля читает и пишет только владелец; HotSpot кладёт long-поля перед остальными,
+    // поэтому заполнение отделяет поля соседних пальцев не меньше чем на строку кэша
+    private static final class Finger {
+        private long p0, p1, p2, p3, p4, p5, p6, p7;
+        private final Thread owner;
+        private FunctionNode node;
+        private int index;
+        private int version = -1;
+
+        Finger(Thread owner) {
+            this.owner = owner;
+        }
+
+        // палец переписывается, только если сдвинулся
+        void move(FunctionNode node, int index, int version) {
+            if (this.node != node || this.version != version) {
+                this.node = node;
+                this.index = index;
+                this.version = version;
+            }
+        }
+    }
+
+    private Finger finger() {
+        Thread thread = Thread.currentThread();
+        int start = (int) thread.getId();
+        for (int probe = 0; probe < FINGER_PROBES; probe++) {
+            int slot = (start + probe) & (FINGER_SLOTS - 1);
+            Finger finger = fingers.get(slot);
+            if (finger != null && finger.owner == thread) {
+                return finger;
+            }
+            if (finger == null || !finger.owner.isAlive()) {
+                Finger claimed = new Finger(thread);
+                if (fingers.compareAndSet(slot, finger, claimed)) {
+                    return claimed;
+                }
+            }
+        }
+        return null;
     }
 
     private FunctionNode getNodeByIndex(int index) {
@@ -43,15 +93,21 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
 
+        Finger finger = finger();
+        int version = structureVersion;
         int startIndex;
         FunctionNode current;
 
-        if (Math.abs(index - lastAccessedIndex) < Math.abs(index)) {
-            startIndex = lastAccessedIndex;
-            current = lastAccessedNode;
-        } else {
+        // ближайшая из трёх точек входа: палец потока, начало или конец списка
+        if (finger != null && finger.version == version && Math.abs(index - finger.index) < Math.min(index, pointsCount - 1 - index)) {
+            startIndex = finger.index;
+            current = finger.node;
+        } else if (index <= pointsCount - 1 - index) {
             startIndex = 0;
             current = head.next;
+        } else {
+            startIndex = pointsCount - 1;
+            current = head.prev;
         }
 
         if (index > startIndex) {
@@ -64,8 +120,46 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             }
         }
 
-        lastAccessedNode = current;
-        lastAccessedIndex = index;
+        if (finger != null) {
+            finger.move(current, index, version);
+        }
+        return current;
+    }
+
+    // узел, которым начинается отрезок с x (для x за последней точкой - предпоследний узел);
+    // обход идёт от ближайшей по x точки входа: пальца потока, начала или конца списка
+    private FunctionNode getSegmentNode(double x) {
+        Finger finger = finger();
+        int version = structureVersion;
+        FunctionNode current = head.next;
+        int index = 0;
+        double distance = Math.abs(x - current.point.getX());
+        if (Math.abs(x - head.prev.point.getX()) < distance) {
+            current = head.prev;
+            index = pointsCount - 1;
+            distance = Math.abs(x - current.point.getX());
+        }
+        if (finger != null && finger.version == version && Math.abs(x - finger.node.point.getX()) < distance) {
+            current = finger.node;
+            index = finger.index;
+        }
+
+        while (current.next != head && current.next.point.getX() <= x) {
+            current = current.next;
+            index++;
+        }
+        while (current.prev != head && current.point.getX() > x) {
+            current = current.prev;
+            index--;
+        }
+        if (current.next == head && current.prev != head) {
+            current = current.prev;
+            index--;
+        }
+
+        if (finger != null) {
+            finger.move(current, index, version);
+        }
         return current;
     }
 
@@ -74,6 +168,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         head.prev.next = newNode;
         head.prev = newNode;
         pointsCount++;
+        structureVersion++;
         return newNode;
     }
 
@@ -83,8 +178,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         nodeAtIndex.prev.next = newNode;
         nodeAtIndex.prev = newNode;
         pointsCount++;
-        lastAccessedNode = newNode;
-        lastAccessedIndex = index;
+        structureVersion++;
         return newNode;
     }
 
@@ -97,17 +191,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         nodeToDelete.prev.next = nodeToDelete.next;
         nodeToDelete.next.prev = nodeToDelete.prev;
         pointsCount--;
-
-        if (lastAccessedNode == nodeToDelete) {
-            lastAccessedNode = nodeToDelete.next;
-            if (lastAccessedNode == head) {
-                lastAccessedNode = head.next;
-                lastAccessedIndex = 0;
-            }
-        } else if (lastAccessedIndex > index) {
-            lastAccessedIndex--;
-        }
-
+        structureVersion++;
         return nodeToDelete;
     }
 
@@ -210,6 +294,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             current = current.next;
         }
         node.point = new FunctionPoint(point);
+        invalidateIndexes();
+        listenerSupport.fireUpdated(index, index);
     }
 
 
@@ -239,6 +325,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         node.point.setX(x);
+        invalidateIndexes();
+        listenerSupport.fireUpdated(index, index);
     }
 
     public double getPointY(int index) {
@@ -249,6 +337,13 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
     public void setPointY(int index, double y) {
         checkIndex(index);
         getNodeByIndex(index).point.setY(y);
+        if (integralIndex != null) {
+            integralIndex.updateY(index, y);
+        }
+        if (extremumIndex != null) {
+            extremumIndex.updateY(index, y);
+        }
+        listenerSupport.fireUpdated(index, index);
     }
 
     private void checkIndex(int index) {
@@ -263,6 +358,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
 
         deleteNodeByIndex(index);
+        invalidateIndexes();
+        listenerSupport.fireRemoved(index, index);
     }
 
 
@@ -298,8 +395,9 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             current.prev = newNode;
         }
         pointsCount++;
-        lastAccessedNode = head;
-        lastAccessedIndex = -1;
+        structureVersion++;
+        invalidateIndexes();
+        listenerSupport.fireInserted(index, index);
     }
 
     public double getFunctionValue(double x) {
@@ -311,25 +409,135 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         if (x < left - EPSILON || x > right + EPSILON) {
             return Double.NaN;
         }
-        FunctionNode current = head.next;
-        while (current != head) {
-            if (Math.abs(current.point.getX() - x) < EPSILON) {
-                return current.point.getY();
+        return valueInSegment(getSegmentNode(x), x);
+    }
+
+    private double valueInSegment(FunctionNode current, double x) {
+        if (Math.abs(current.point.getX() - x) < EPSILON) {
+            return current.point.getY();
+        }
+        FunctionNode next = current.next;
+        if (next == head) {
+            return Double.NaN;
+        }
+        if (Math.abs(next.point.getX() - x) < EPSILON) {
+            return next.point.getY();
+        }
+        double x1 = current.point.getX();
+        double x2 = next.point.getX();
+        double y1 = current.point.getY();
+        double y2 = next.point.getY();
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+    public double getIntegral(double leftX, double rightX) {
+        if (integralIndex == null) {
+            integralIndex = new SegmentAreaIndex(this);
+        }
+        return integralIndex.integrate(leftX, rightX);
+    }
+    public double getMinValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[1];
+    }
+
+    public double getMaxValue(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[1];
+    }
+
+    public double getArgMin(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, false)[0];
+    }
+
+    public double getArgMax(double leftX, double rightX) {
+        return getExtremumIndex().extremum(leftX, rightX, true)[0];
+    }
+
+    private RangeExtremumIndex getExtremumIndex() {
+        if (extremumIndex == null) {
+            extremumIndex = new RangeExtremumIndex(this);
+        }
+        return extremumIndex;
+    }
+
+    private void invalidateIndexes() {
+        integralIndex = null;
+        extremumIndex = null;
+    }
+
+    // курсор ходит по узлам сам и не трогает пальцы потоков
+    public PointCursor cursor(int fromIndex) {
+        if (fromIndex < 0 || fromIndex > pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException("Index: " + fromIndex);
+        }
+        int before = fromIndex - 1;
+        FunctionNode node = head;
+        if (before >= 0 && before < pointsCount / 2) {
+            for (int i = -1; i < before; i++) {
+                node = node.next;
+            }
+        } else if (before >= 0) {
+            for (int i = pointsCount; i > before; i--) {
+                node = node.prev;
             }
-            current = current.next;
         }
-        current = head.next;
-        while (current.next != head) {
-            double x1 = current.point.getX();
-            double x2 = current.next.point.getX();
-            if (x >= x1 - EPSILON && x <= x2 + EPSILON) {
-                double y1 = current.point.getY();
-                double y2 = current.next.point.getY();
-                return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+        return new NodeCursor(node, before);
+    }
+
+    private class NodeCursor implements PointCursor {
+        private FunctionNode node;
+        private int index;
+
+        NodeCursor(FunctionNode node, int index) {
+            this.node = node;
+            this.index = index;
+        }
+
+        public boolean next() {
+            if (node.next == head) {
+                return false;
             }
-            current = current.next;
+            node = node.next;
+            index++;
+            return true;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public double x() {
+            return node.point.getX();
+        }
+
+        public double y() {
+            return node.point.getY();
         }
-        return Double.NaN;
+    }
+
+    public long getModificationVersion() {
+        return listenerSupport.getVersion();
+    }
+
+    public void addListener(TabulatedFunctionListener listener) {
+        listenerSupport.add(listener);
+    }
+
+    public void removeListener(TabulatedFunctionListener listener) {
+        listenerSupport.remove(listener);
+    }
+    // отрезок ищется один раз: по нему считаются и значение, и наклон
+    public DualNumber getFunctionValue(DualNumber x) {
+        double v = x.getValue();
+        if (pointsCount < 2 || v < getLeftDomainBorder() - EPSILON || v > getRightDomainBorder() + EPSILON) {
+            return DualNumber.nan();
+        }
+        FunctionNode current = getSegmentNode(v);
+        double value = valueInSegment(current, v);
+        if (Double.isNaN(value)) {
+            return DualNumber.nan();
+        }
+        double slope = (current.next.point.getY() - current.point.getY())
+                / (current.next.point.getX() - current.point.getX());
+        return new DualNumber(value, slope * x.getDerivative());
     }
     public String toString() {
         StringBuilder sb = new StringBuilder("LinkedListTabulatedFunction[");
@@ -364,8 +572,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         head.prev = head;
         head.next = head;
         pointsCount = 0;
-        lastAccessedNode = head;
-        lastAccessedIndex = -1;
+        structureVersion++;
+        invalidateIndexes();
 
         int count = in.readInt();
         for (int i = 0; i < count; i++) {
@@ -0,0 +1,54 @@
+package functions;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+final class ListenerSupport {
+    private final TabulatedFunction source;
+    private final List<TabulatedFunctionListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long version;
+
+    ListenerSupport(TabulatedFunction source) {
+        this.source = source;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    void add(TabulatedFunctionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    void remove(TabulatedFunctionListener listener) {
+        listeners.remove(listener);
+    }
+
+    void touch() {
+        version++;
+    }
+
+    void fireUpdated(int fromIndex, int toIndex) {
+        version++;
+        for (TabulatedFunctionListener listener : listeners) {
+            listener.pointsUpdated(source, fromIndex, toIndex);
+        }
+    }
+
+    void fireInserted(int fromIndex, int toIndex) {
+        version++;
+        for (TabulatedFunctionListener listener : listeners) {
+            listener.pointsInserted(source, fromIndex, toIndex);
+        }
+    }
+
+    void fireRemoved(int fromIndex, int toIndex) {
+        version++;
+        for (TabulatedFunctionListener listener : listeners) {
+            listener.pointsRemoved(source, fromIndex, toIndex);
+        }
+    }
+}
\ No newline at end of file
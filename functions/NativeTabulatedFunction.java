@@ -0,0 +1,629 @@
+package functions;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// точки хранятся вне кучи в прямых буферах, по 16 байт на точку (x, y) — тот же порядок, что и в двоичном формате
+public class NativeTabulatedFunction implements TabulatedFunction, AutoCloseable {
+    private static final int CHUNK_SHIFT = 26;
+    private static final long CHUNK_POINTS = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_POINTS - 1;
+    private static final int POINT_BYTES = 16;
+    private static final double EPSILON = 1e-10;
+    private ByteBuffer[] chunks;
+    private long pointsCount;
+    private long capacity;
+    private static final int BLOCK_SHIFT = 10;
+    private static final long BLOCK_POINTS = 1L << BLOCK_SHIFT;
+    private BlockIndex index;
+    private final ListenerSupport listenerSupport = new ListenerSupport(this);
+
+    private NativeTabulatedFunction(long pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2, got: " + pointsCount);
+        }
+        this.chunks = new ByteBuffer[0];
+        this.capacity = 0;
+        ensureCapacity(pointsCount);
+        this.pointsCount = pointsCount;
+    }
+
+    public NativeTabulatedFunction(double leftX, double rightX, long pointsCount) {
+        this(pointsCount);
+        if (rightX - leftX < EPSILON) {
+            throw new IllegalArgumentException(
+                    "Left border must be less than right border. Got: leftX=" + leftX + ", rightX=" + rightX
+            );
+        }
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (long i = 0; i < pointsCount; i++) {
+            write(i, leftX + i * step, 0.0);
+        }
+    }
+
+    public NativeTabulatedFunction(TabulatedFunction function) {
+        this(function.getPointsCount());
+        for (int i = 0; i < function.getPointsCount(); i++) {
+            write(i, function.getPointX(i), function.getPointY(i));
+        }
+    }
+
+    // читает двоичный формат outputTabulatedFunction прямо в буферы, минуя кучу
+    public static NativeTabulatedFunction read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocateDirect(Integer.BYTES);
+        readFully(channel, header);
+        int count = header.flip().getInt();
+        if (count < 2) {
+            throw new IllegalArgumentException("Invalid data: points count must be at least 2");
+        }
+        NativeTabulatedFunction function = new NativeTabulatedFunction(count);
+        for (ByteBuffer chunk : function.chunks) {
+            ByteBuffer target = chunk.duplicate();
+            target.clear();
+            readFully(channel, target);
+        }
+        for (long i = 1; i < count; i++) {
+            if (function.x(i) <= function.x(i - 1) + EPSILON) {
+                function.close();
+                throw new IllegalArgumentException("Points must be strictly ordered by increasing X");
+            }
+        }
+        return function;
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+        }
+    }
+
+    public long getLongPointsCount() {
+        ensureOpen();
+        return pointsCount;
+    }
+
+    public double getPointX(long index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public double getPointY(long index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setPointY(long index, double y) {
+        checkIndex(index);
+        chunk(index).putDouble(offset(index) + Double.BYTES, y);
+        if (this.index != null) {
+            this.index.updateY(index);
+        }
+        fireUpdated(index);
+    }
+
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    // память буферов освобождается сразу, если JVM даёт доступ к Unsafe.invokeCleaner, иначе - сборщиком мусора;
+    // close нельзя вызывать одновременно с другими методами этого объекта
+    @Override
+    public void close() {
+        ByteBuffer[] released = chunks;
+        chunks = null;
+        pointsCount = 0;
+        capacity = 0;
+        invalidateIndexes();
+        if (released != null) {
+            for (ByteBuffer chunk : released) {
+                free(chunk);
+            }
+        }
+    }
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private static void free(ByteBuffer chunk) {
+        if (INVOKE_CLEANER == null || chunk == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, chunk);
+        } catch (ReflectiveOperationException e) {
+            // остаётся освобождение сборщиком
+        }
+    }
+
+    public int getPointsCount() {
+        ensureOpen();
+        if (pointsCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "Points count " + pointsCount + " does not fit into int, use getLongPointsCount");
+        }
+        return (int) pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        checkBounds(index, point.getX());
+        write(index, point.getX(), point.getY());
+        invalidateIndexes();
+        fireUpdated(index);
+    }
+
+    public double getPointX(int index) {
+        return getPointX((long) index);
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        checkBounds(index, x);
+        chunk(index).putDouble(offset(index), x);
+        invalidateIndexes();
+        fireUpdated(index);
+    }
+
+    public double getPointY(int index) {
+        return getPointY((long) index);
+    }
+
+    public void setPointY(int index, double y) {
+        setPointY((long) index, y);
+    }
+
+    public void deletePoint(int index) {
+        checkIndex(index);
+        if (pointsCount <= 2) {
+            throw new IllegalStateException(
+                    "Cannot delete point: function must have at least 2 points. Current: " + pointsCount
+            );
+        }
+        for (long i = index; i < pointsCount - 1; i++) {
+            write(i, x(i + 1), y(i + 1));
+        }
+        pointsCount--;
+        invalidateIndexes();
+        listenerSupport.fireRemoved(index, index);
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        ensureOpen();
+        long insertIndex = lowerBound(point.getX());
+        if ((insertIndex < pointsCount && Math.abs(x(insertIndex) - point.getX()) < EPSILON)
+                || (insertIndex > 0 && Math.abs(x(insertIndex - 1) - point.getX()) < EPSILON)) {
+            throw new InappropriateFunctionPointException(
+                    "Point with X = " + point.getX() + " already exists"
+            );
+        }
+        ensureCapacity(pointsCount + 1);
+        for (long i = pointsCount; i > insertIndex; i--) {
+            write(i, x(i - 1), y(i - 1));
+        }
+        write(insertIndex, point.getX(), point.getY());
+        pointsCount++;
+        invalidateIndexes();
+        if (insertIndex <= Integer.MAX_VALUE) {
+            listenerSupport.fireInserted((int) insertIndex, (int) insertIndex);
+        } else {
+            listenerSupport.touch();
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        ensureOpen();
+        return x(0);
+    }
+
+    public double getRightDomainBorder() {
+        ensureOpen();
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+            return Double.NaN;
+        }
+        long i = segment(x);
+        double x1 = x(i);
+        double x2 = x(i + 1);
+        if (Math.abs(x - x1) < EPSILON) {
+            return y(i);
+        }
+        if (Math.abs(x - x2) < EPSILON) {
+            return y(i + 1);
+        }
+        double y1 = y(i);
+        return y1 + (y(i + 1) - y1) * (x - x1) / (x2 - x1);
+    }
+
+    public DualNumber getFunctionValue(DualNumber x) {
+        double value = getFunctionValue(x.getValue());
+        if (Double.isNaN(value)) {
+            return DualNumber.nan();
+        }
+        long i = segment(x.getValue());
+        double slope = (y(i + 1) - y(i)) / (x(i + 1) - x(i));
+        return new DualNumber(value, slope * x.getDerivative());
+    }
+
+    public double getIntegral(double leftX, double rightX) {
+        return getIndex().integrate(leftX, rightX);
+    }
+
+    public double getMinValue(double leftX, double rightX) {
+        return getIndex().extremum(leftX, rightX, false)[1];
+    }
+
+    public double getMaxValue(double leftX, double rightX) {
+        return getIndex().extremum(leftX, rightX, true)[1];
+    }
+
+    public double getArgMin(double leftX, double rightX) {
+        return getIndex().extremum(leftX, rightX, false)[0];
+    }
+
+    public double getArgMax(double leftX, double rightX) {
+        return getIndex().extremum(leftX, rightX, true)[0];
+    }
+
+    private BlockIndex getIndex() {
+        ensureOpen();
+        if (index == null) {
+            index = new BlockIndex();
+        }
+        return index;
+    }
+
+    private void invalidateIndexes() {
+        index = null;
+    }
+
+    // индексы для интеграла и экстремумов читают точки прямо из буферов; в куче хранятся только итоги
+    // по блокам из BLOCK_POINTS точек, так что индексы не копируют таблицу и работают с long-индексами
+    private final class BlockIndex {
+        private final int blocks;
+        // дерево Фенвика по площадям блоков; отрезок j относится к блоку j >>> BLOCK_SHIFT
+        private final double[] areaTree;
+        private final long[] blockMin;
+        private final long[] blockMax;
+        // дерево отрезков по номерам блоков
+        private final int[] minTree;
+        private final int[] maxTree;
+
+        BlockIndex() {
+            long count = (pointsCount + BLOCK_POINTS - 1) >>> BLOCK_SHIFT;
+            if (count >= Integer.MAX_VALUE / 2) {
+                throw new IllegalStateException("Too many points for block index: " + pointsCount);
+            }
+            blocks = (int) count;
+            areaTree = new double[blocks + 1];
+            blockMin = new long[blocks];
+            blockMax = new long[blocks];
+            minTree = new int[2 * blocks];
+            maxTree = new int[2 * blocks];
+            for (int b = 0; b < blocks; b++) {
+                areaTree[b + 1] += blockArea(b);
+                int parent = (b + 1) + ((b + 1) & -(b + 1));
+                if (parent <= blocks) {
+                    areaTree[parent] += areaTree[b + 1];
+                }
+                scanBlock(b);
+                minTree[blocks + b] = b;
+                maxTree[blocks + b] = b;
+            }
+            for (int node = blocks - 1; node > 0; node--) {
+                pull(node);
+            }
+        }
+
+        // вызывается после записи нового y в буфер
+        void updateY(long index) {
+            int block = (int) (index >>> BLOCK_SHIFT);
+            if (index > 0 && ((index - 1) >>> BLOCK_SHIFT) != block) {
+                addArea((int) ((index - 1) >>> BLOCK_SHIFT), blockArea((int) ((index - 1) >>> BLOCK_SHIFT)));
+            }
+            addArea(block, blockArea(block));
+            scanBlock(block);
+            for (int node = (blocks + block) >> 1; node > 0; node >>= 1) {
+                pull(node);
+            }
+        }
+
+        double integrate(double leftX, double rightX) {
+            if (leftX > rightX) {
+                return -integrate(rightX, leftX);
+            }
+            checkInterval(leftX, rightX);
+            return primitive(rightX) - primitive(leftX);
+        }
+
+        double[] extremum(double leftX, double rightX, boolean max) {
+            if (leftX > rightX) {
+                return extremum(rightX, leftX, max);
+            }
+            checkInterval(leftX, rightX);
+            double bestX = leftX;
+            double bestY = valueAt(leftX);
+            double rightY = valueAt(rightX);
+            if (max ? rightY > bestY : rightY < bestY) {
+                bestX = rightX;
+                bestY = rightY;
+            }
+            long from = segment(leftX);
+            if (x(from) < leftX) {
+                from++;
+            }
+            long to = segment(rightX) + 1;
+            if (x(to) > rightX) {
+                to--;
+            }
+            if (from <= to) {
+                long best = query(from, to, max);
+                if (max ? y(best) > bestY : y(best) < bestY) {
+                    bestX = x(best);
+                    bestY = y(best);
+                }
+            }
+            return new double[]{bestX, bestY};
+        }
+
+        private void checkInterval(double leftX, double rightX) {
+            if (leftX < x(0) - EPSILON || rightX > x(pointsCount - 1) + EPSILON) {
+                throw new IllegalArgumentException(
+                        "Interval [" + leftX + ", " + rightX + "] is outside function domain");
+            }
+        }
+
+        private double valueAt(double value) {
+            long i = segment(value);
+            return y(i) + (y(i + 1) - y(i)) * (value - x(i)) / (x(i + 1) - x(i));
+        }
+
+        private double primitive(double value) {
+            long i = segment(value);
+            int block = (int) (i >>> BLOCK_SHIFT);
+            double sum = 0;
+            for (int b = block; b > 0; b -= b & -b) {
+                sum += areaTree[b];
+            }
+            for (long j = (long) block << BLOCK_SHIFT; j < i; j++) {
+                sum += segmentArea(j);
+            }
+            return sum + (y(i) + valueAt(value)) * (value - x(i)) / 2;
+        }
+
+        private long query(long from, long to, boolean max) {
+            int first = (int) (from >>> BLOCK_SHIFT);
+            int last = (int) (to >>> BLOCK_SHIFT);
+            if (first == last) {
+                return scan(from, to, from, max);
+            }
+            long best = scan(from, ((long) first << BLOCK_SHIFT) + BLOCK_POINTS - 1, from, max);
+            best = scan((long) last << BLOCK_SHIFT, to, best, max);
+            int[] tree = max ? maxTree : minTree;
+            long[] blockBest = max ? blockMax : blockMin;
+            for (int l = first + 1 + blocks, r = last + blocks; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, blockBest[tree[l++]], max);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, blockBest[tree[--r]], max);
+                }
+            }
+            return best;
+        }
+
+        private long scan(long from, long to, long best, boolean max) {
+            for (long j = from; j <= to; j++) {
+                best = better(best, j, max);
+            }
+            return best;
+        }
+
+        private void scanBlock(int block) {
+            long from = (long) block << BLOCK_SHIFT;
+            long to = Math.min(from + BLOCK_POINTS, pointsCount) - 1;
+            blockMin[block] = scan(from, to, from, false);
+            blockMax[block] = scan(from, to, from, true);
+        }
+
+        private double blockArea(int block) {
+            long from = (long) block << BLOCK_SHIFT;
+            long to = Math.min(from + BLOCK_POINTS, pointsCount - 1);
+            double sum = 0;
+            for (long j = from; j < to; j++) {
+                sum += segmentArea(j);
+            }
+            return sum;
+        }
+
+        // заменяет сохранённую площадь блока на newArea
+        private void addArea(int block, double newArea) {
+            double oldArea = 0;
+            for (int b = block + 1; b > 0; b -= b & -b) {
+                oldArea += areaTree[b];
+            }
+            for (int b = block; b > 0; b -= b & -b) {
+                oldArea -= areaTree[b];
+            }
+            double delta = newArea - oldArea;
+            for (int b = block + 1; b <= blocks; b += b & -b) {
+                areaTree[b] += delta;
+            }
+        }
+
+        private double segmentArea(long j) {
+            return (y(j) + y(j + 1)) * (x(j + 1) - x(j)) / 2;
+        }
+
+        private void pull(int node) {
+            minTree[node] = betterBlock(minTree[2 * node], minTree[2 * node + 1], blockMin, false);
+            maxTree[node] = betterBlock(maxTree[2 * node], maxTree[2 * node + 1], blockMax, true);
+        }
+
+        private int betterBlock(int a, int b, long[] blockBest, boolean max) {
+            return better(blockBest[a], blockBest[b], max) == blockBest[a] ? a : b;
+        }
+
+        private long better(long a, long b, boolean max) {
+            double ya = y(a);
+            double yb = y(b);
+            if (ya == yb) {
+                return Math.min(a, b);
+            }
+            return (max ? ya > yb : ya < yb) ? a : b;
+        }
+    }
+
+    public long getModificationVersion() {
+        return listenerSupport.getVersion();
+    }
+
+    public void addListener(TabulatedFunctionListener listener) {
+        listenerSupport.add(listener);
+    }
+
+    public void removeListener(TabulatedFunctionListener listener) {
+        listenerSupport.remove(listener);
+    }
+
+    // слушатели работают в int-индексах; изменения за пределами int отражаются только в версии
+    private void fireUpdated(long index) {
+        if (index <= Integer.MAX_VALUE) {
+            listenerSupport.fireUpdated((int) index, (int) index);
+        } else {
+            listenerSupport.touch();
+        }
+    }
+
+    private void checkBounds(int index, double newX) throws InappropriateFunctionPointException {
+        checkIndex(index);
+        double leftBound = (index > 0) ? x(index - 1) : -Double.MAX_VALUE;
+        double rightBound = (index < pointsCount - 1) ? x(index + 1) : Double.MAX_VALUE;
+        if (newX <= leftBound + EPSILON || newX >= rightBound - EPSILON) {
+            throw new InappropriateFunctionPointException(
+                    "New X coordinate " + newX + " would break point ordering. " +
+                            "Must be in (" + leftBound + ", " + rightBound + ")"
+            );
+        }
+    }
+
+    private void checkIndex(long index) {
+        ensureOpen();
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Index " + index + " is out of bounds [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    private void ensureOpen() {
+        if (chunks == null) {
+            throw new IllegalStateException("Function has been closed");
+        }
+    }
+
+    // первый индекс с x >= value
+    private long lowerBound(double value) {
+        long low = 0;
+        long high = pointsCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (x(mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long segment(double value) {
+        long i = lowerBound(value) - 1;
+        return Math.max(0, Math.min(i, pointsCount - 2));
+    }
+
+    private void ensureCapacity(long required) {
+        if (required <= capacity) {
+            return;
+        }
+        long target = Math.max(required, Math.min(capacity * 2, capacity + CHUNK_POINTS));
+        int chunkCount = (int) ((target + CHUNK_POINTS - 1) >>> CHUNK_SHIFT);
+        ByteBuffer[] newChunks = new ByteBuffer[chunkCount];
+        System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+        for (int c = Math.max(0, chunks.length - 1); c < chunkCount; c++) {
+            long points = Math.min(CHUNK_POINTS, target - ((long) c << CHUNK_SHIFT));
+            if (newChunks[c] != null && newChunks[c].capacity() >= points * POINT_BYTES) {
+                continue;
+            }
+            ByteBuffer chunk = ByteBuffer.allocateDirect((int) (points * POINT_BYTES));
+            if (newChunks[c] != null) {
+                chunk.put(newChunks[c].duplicate().clear());
+                chunk.clear();
+            }
+            newChunks[c] = chunk;
+        }
+        chunks = newChunks;
+        capacity = target;
+    }
+
+    private ByteBuffer chunk(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)];
+    }
+
+    private int offset(long index) {
+        return (int) (index & CHUNK_MASK) * POINT_BYTES;
+    }
+
+    private double x(long index) {
+        return chunk(index).getDouble(offset(index));
+    }
+
+    private double y(long index) {
+        return chunk(index).getDouble(offset(index) + Double.BYTES);
+    }
+
+    private void write(long index, double x, double y) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        chunk.putDouble(offset, x);
+        chunk.putDouble(offset + Double.BYTES, y);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("NativeTabulatedFunction[");
+        for (long i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("(").append(x(i)).append(", ").append(y(i)).append(")");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
\ No newline at end of file
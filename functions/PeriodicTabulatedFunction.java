@@ -0,0 +1,113 @@
+package functions;
+
+// периодическая табулированная функция: f(x) = amplitude * P(frequency * x + phase) + offset,
+// где P хранится на одном периоде (или на четверти периода для волн с симметрией синуса)
+public class PeriodicTabulatedFunction implements Function {
+    private final double[] ys;
+    private final double period;
+    private final boolean quarterWave;
+    private final double step;
+    private final double amplitude;
+    private final double frequency;
+    private final double phase;
+    private final double offset;
+
+    PeriodicTabulatedFunction(double[] ys, double period, boolean quarterWave) {
+        this(ys, period, quarterWave, 1, 1, 0, 0);
+    }
+
+    private PeriodicTabulatedFunction(double[] ys, double period, boolean quarterWave,
+                                      double amplitude, double frequency, double phase, double offset) {
+        if (ys.length < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2");
+        }
+        if (!(period > 0) || Double.isInfinite(period)) {
+            throw new IllegalArgumentException("Period must be positive and finite, got: " + period);
+        }
+        this.ys = ys;
+        this.period = period;
+        this.quarterWave = quarterWave;
+        this.step = (quarterWave ? period / 4 : period) / (ys.length - 1);
+        this.amplitude = amplitude;
+        this.frequency = frequency;
+        this.phase = phase;
+        this.offset = offset;
+    }
+
+    // период по x с учётом растяжения
+    public double getPeriod() {
+        return period / Math.abs(frequency);
+    }
+
+    public int getStoredPointsCount() {
+        return ys.length;
+    }
+
+    public boolean isQuarterWave() {
+        return quarterWave;
+    }
+
+    // f(x - shiftX) + shiftY, без потери периодического представления
+    public PeriodicTabulatedFunction shift(double shiftX, double shiftY) {
+        return new PeriodicTabulatedFunction(ys, period, quarterWave,
+                amplitude, frequency, phase - frequency * shiftX, offset + shiftY);
+    }
+
+    // f(x / scaleX) * scaleY, без потери периодического представления
+    public PeriodicTabulatedFunction scale(double scaleX, double scaleY) {
+        return new PeriodicTabulatedFunction(ys, period, quarterWave,
+                amplitude * scaleY, frequency / scaleX, phase, offset * scaleY);
+    }
+
+    public double getLeftDomainBorder() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    public double getRightDomainBorder() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public double getFunctionValue(double x) {
+        return amplitude * lookup(frequency * x + phase, false) + offset;
+    }
+
+    public DualNumber getFunctionValue(DualNumber x) {
+        double u = frequency * x.getValue() + phase;
+        return new DualNumber(amplitude * lookup(u, false) + offset,
+                amplitude * lookup(u, true) * frequency * x.getDerivative());
+    }
+
+    // значение или производная хранимого периода в точке u
+    private double lookup(double u, boolean slope) {
+        if (!Double.isFinite(u)) {
+            return Double.NaN;
+        }
+        double t = u - period * Math.floor(u / period);
+        double sign = 1;
+        double direction = 1;
+        if (quarterWave) {
+            double half = period / 2;
+            if (t >= half) {
+                t -= half;
+                sign = -1;
+            }
+            if (t > half / 2) {
+                t = half - t;
+                direction = -1;
+            }
+        }
+        int i = Math.max(0, Math.min((int) (t / step), ys.length - 2));
+        double y1 = ys[i];
+        double y2 = ys[i + 1];
+        if (slope) {
+            return sign * direction * (y2 - y1) / step;
+        }
+        return sign * (y1 + (y2 - y1) * (t - i * step) / step);
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodicTabulatedFunction[period=" + getPeriod() + ", stored points=" + ys.length
+                + (quarterWave ? ", quarter wave" : "") + "]";
+    }
+}
\ No newline at end of file
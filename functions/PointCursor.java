@@ -0,0 +1,9 @@
+package functions;
+
+// курсор по точкам без создания объектов FunctionPoint; до первого next() не указывает ни на какую точку
+public interface PointCursor {
+    boolean next();
+    int index();
+    double x();
+    double y();
+}
\ No newline at end of file
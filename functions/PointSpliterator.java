@@ -0,0 +1,70 @@
+package functions;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+// делит диапазон индексов пополам; курсор создаётся только при обходе
+final class PointSpliterator implements Spliterator.OfDouble {
+    private static final int MIN_SPLIT = 1024;
+    private final TabulatedFunction function;
+    private final boolean xColumn;
+    private int from;
+    private final int to;
+    private PointCursor cursor;
+
+    PointSpliterator(TabulatedFunction function, boolean xColumn, int from, int to) {
+        this.function = function;
+        this.xColumn = xColumn;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer action) {
+        if (from >= to) {
+            return false;
+        }
+        if (cursor == null) {
+            cursor = function.cursor(from);
+        }
+        cursor.next();
+        from++;
+        action.accept(xColumn ? cursor.x() : cursor.y());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer action) {
+        if (from >= to) {
+            return;
+        }
+        if (cursor == null) {
+            cursor = function.cursor(from);
+        }
+        for (; from < to; from++) {
+            cursor.next();
+            action.accept(xColumn ? cursor.x() : cursor.y());
+        }
+    }
+
+    @Override
+    public Spliterator.OfDouble trySplit() {
+        if (cursor != null || to - from < 2 * MIN_SPLIT) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        PointSpliterator prefix = new PointSpliterator(function, xColumn, from, middle);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
\ No newline at end of file
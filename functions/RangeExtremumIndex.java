@@ -0,0 +1,97 @@
+package functions;
+
+// дерево отрезков по индексам минимума и максимума y; концы запроса учитываются интерполяцией
+final class RangeExtremumIndex {
+    private static final double EPSILON = 1e-10;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] minTree;
+    private final int[] maxTree;
+    private final int size;
+
+    RangeExtremumIndex(TabulatedFunction function) {
+        xs = Segments.xValues(function);
+        ys = Segments.yValues(function);
+        size = xs.length;
+        minTree = new int[2 * size];
+        maxTree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            minTree[size + i] = i;
+            maxTree[size + i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            pull(i);
+        }
+    }
+
+    void updateY(int index, double y) {
+        ys[index] = y;
+        for (int i = (index + size) >> 1; i > 0; i >>= 1) {
+            pull(i);
+        }
+    }
+
+    // {x, y} точки экстремума на отрезке [leftX, rightX]
+    double[] extremum(double leftX, double rightX, boolean max) {
+        if (leftX > rightX) {
+            return extremum(rightX, leftX, max);
+        }
+        if (leftX < xs[0] - EPSILON || rightX > xs[size - 1] + EPSILON) {
+            throw new IllegalArgumentException(
+                    "Interval [" + leftX + ", " + rightX + "] is outside function domain");
+        }
+        double bestX = leftX;
+        double bestY = valueAt(leftX);
+        double rightY = valueAt(rightX);
+        if (max ? rightY > bestY : rightY < bestY) {
+            bestX = rightX;
+            bestY = rightY;
+        }
+        int from = Segments.find(xs, size, leftX);
+        if (xs[from] < leftX) {
+            from++;
+        }
+        int to = Segments.find(xs, size, rightX) + 1;
+        if (xs[to] > rightX) {
+            to--;
+        }
+        if (from <= to) {
+            int best = query(from, to, max);
+            if (max ? ys[best] > bestY : ys[best] < bestY) {
+                bestX = xs[best];
+                bestY = ys[best];
+            }
+        }
+        return new double[]{bestX, bestY};
+    }
+
+    private double valueAt(double x) {
+        return Segments.interpolate(xs, ys, Segments.find(xs, size, x), x);
+    }
+
+    private int query(int from, int to, boolean max) {
+        int[] tree = max ? maxTree : minTree;
+        int best = from;
+        for (int l = from + size, r = to + size + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, tree[l++], max);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, tree[--r], max);
+            }
+        }
+        return best;
+    }
+
+    private void pull(int node) {
+        minTree[node] = better(minTree[2 * node], minTree[2 * node + 1], false);
+        maxTree[node] = better(maxTree[2 * node], maxTree[2 * node + 1], true);
+    }
+
+    private int better(int a, int b, boolean max) {
+        if (ys[a] == ys[b]) {
+            return Math.min(a, b);
+        }
+        return (max ? ys[a] > ys[b] : ys[a] < ys[b]) ? a : b;
+    }
+}
\ No newline at end of file
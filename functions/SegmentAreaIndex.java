@@ -0,0 +1,70 @@
+package functions;
+
+// префиксные суммы площадей трапеций в дереве Фенвика: обновление y и запрос интеграла за O(log n)
+final class SegmentAreaIndex {
+    private static final double EPSILON = 1e-10;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] tree;
+
+    SegmentAreaIndex(TabulatedFunction function) {
+        xs = Segments.xValues(function);
+        ys = Segments.yValues(function);
+        tree = new double[xs.length];
+        for (int i = 0; i < xs.length - 1; i++) {
+            tree[i + 1] += area(i);
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent < tree.length) {
+                tree[parent] += tree[i + 1];
+            }
+        }
+    }
+
+    void updateY(int index, double y) {
+        double oldLeft = index > 0 ? area(index - 1) : 0;
+        double oldRight = index < xs.length - 1 ? area(index) : 0;
+        ys[index] = y;
+        if (index > 0) {
+            add(index - 1, area(index - 1) - oldLeft);
+        }
+        if (index < xs.length - 1) {
+            add(index, area(index) - oldRight);
+        }
+    }
+
+    double integrate(double leftX, double rightX) {
+        if (leftX > rightX) {
+            return -integrate(rightX, leftX);
+        }
+        if (leftX < xs[0] - EPSILON || rightX > xs[xs.length - 1] + EPSILON) {
+            throw new IllegalArgumentException(
+                    "Integration interval [" + leftX + ", " + rightX + "] is outside function domain");
+        }
+        return primitive(rightX) - primitive(leftX);
+    }
+
+    private double primitive(double x) {
+        int i = Segments.find(xs, xs.length, x);
+        double y = Segments.interpolate(xs, ys, i, x);
+        return prefix(i) + (ys[i] + y) * (x - xs[i]) / 2;
+    }
+
+    private double area(int segment) {
+        return (ys[segment] + ys[segment + 1]) * (xs[segment + 1] - xs[segment]) / 2;
+    }
+
+    private void add(int segment, double delta) {
+        for (int i = segment + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // сумма площадей отрезков [0, segment)
+    private double prefix(int segment) {
+        double sum = 0;
+        for (int i = segment; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
\ No newline at end of file
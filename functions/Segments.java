@@ -0,0 +1,41 @@
+package functions;
+
+final class Segments {
+    private Segments() {
+    }
+
+    static double[] xValues(TabulatedFunction function) {
+        double[] xs = new double[function.getPointsCount()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = function.getPointX(i);
+        }
+        return xs;
+    }
+
+    static double[] yValues(TabulatedFunction function) {
+        double[] ys = new double[function.getPointsCount()];
+        for (int i = 0; i < ys.length; i++) {
+            ys[i] = function.getPointY(i);
+        }
+        return ys;
+    }
+
+    // индекс i отрезка [xs[i], xs[i+1]], содержащего x (с прижатием к крайним отрезкам)
+    static int find(double[] xs, int count, double x) {
+        int low = 0;
+        int high = count - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (xs[mid] <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    static double interpolate(double[] xs, double[] ys, int i, double x) {
+        return ys[i] + (ys[i + 1] - ys[i]) * (x - xs[i]) / (xs[i + 1] - xs[i]);
+    }
+}
\ No newline at end of file
@@ -10,5 +10,20 @@ public interface TabulatedFunction extends Function {
     void setPointY(int index, double y);
     void deletePoint(int index);
     void addPoint(FunctionPoint point) throws InappropriateFunctionPointException;
+    double getIntegral(double leftX, double rightX);
+    double getMinValue(double leftX, double rightX);
+    double getMaxValue(double leftX, double rightX);
+    double getArgMin(double leftX, double rightX);
+    double getArgMax(double leftX, double rightX);
+    long getModificationVersion();
+    void addListener(TabulatedFunctionListener listener);
+    void removeListener(TabulatedFunctionListener listener);
+
+    default PointCursor cursor(int fromIndex) {
+        if (fromIndex < 0 || fromIndex > getPointsCount()) {
+            throw new FunctionPointIndexOutOfBoundsException("Index: " + fromIndex);
+        }
+        return new IndexedPointCursor(this, fromIndex);
+    }
     String toString();
 }
\ No newline at end of file
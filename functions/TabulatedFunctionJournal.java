@@ -0,0 +1,316 @@
+package functions;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// журнал изменений табулированной функции: снимок в двоичном формате outputTabulatedFunction
+// плюс дописываемый журнал операций; файлы одного поколения: <name>.<gen>.snapshot и <name>.<gen>.journal.
+// контрольная точка сразу переключает запись на журнал следующего поколения, а снимок пишется в фоновом потоке;
+// пока он не готов, восстановление проигрывает журналы нескольких поколений подряд
+public class TabulatedFunctionJournal implements TabulatedFunctionListener, AutoCloseable {
+    private static final byte UPDATE = 1;
+    private static final byte INSERT = 2;
+    private static final byte REMOVE = 3;
+    private static final int RECORD_BYTES = 1 + Integer.BYTES + 2 * Double.BYTES;
+    private static final int RECOVERY_ATTEMPTS = 10;
+
+    private final TabulatedFunction function;
+    private final Path directory;
+    private final String name;
+    private final int batchSize;
+    private final long checkpointInterval;
+    private final boolean sync;
+    private final ByteBuffer buffer;
+    private FileChannel journal;
+    private long generation;
+    private long recordsSinceCheckpoint;
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "journal-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile IOException snapshotFailure;
+
+    public TabulatedFunctionJournal(TabulatedFunction function, File directory, String name,
+                                    int batchSize, long checkpointInterval, boolean sync) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, got: " + batchSize);
+        }
+        this.function = function;
+        this.directory = directory.toPath();
+        this.name = name;
+        this.batchSize = batchSize;
+        this.checkpointInterval = checkpointInterval;
+        this.sync = sync;
+        this.buffer = ByteBuffer.allocate(batchSize * RECORD_BYTES);
+        try {
+            Files.createDirectories(this.directory);
+            // журналы без снимка тоже считаются: их поколения заняты и не должны перезаписываться
+            long previous = Math.max(latestGeneration(this.directory, name, ".snapshot"),
+                    latestGeneration(this.directory, name, ".journal"));
+            this.generation = previous + 1;
+            writeSnapshot(generation, Segments.xValues(function), Segments.yValues(function));
+            openJournal();
+            deleteGenerationsBefore(generation);
+        } catch (IOException e) {
+            throw new RuntimeException("Error creating journal for tabulated function", e);
+        }
+        function.addListener(this);
+    }
+
+    // последний полный снимок плюс журналы его и следующих поколений, чьи снимки ещё не были дописаны.
+    // Журнал может быть открыт: фоновая запись снимка удаляет старые поколения прямо во время чтения,
+    // тогда чтение повторяется с нового последнего снимка
+    public static TabulatedFunction recover(File directory, String name) {
+        Path path = directory.toPath();
+        for (int attempt = 1; ; attempt++) {
+            long generation = latestGeneration(path, name, ".snapshot");
+            if (generation < 0) {
+                // листинг каталога во время переименования снимка может не вернуть ни старый, ни новый файл
+                if (attempt >= RECOVERY_ATTEMPTS || latestGeneration(path, name, ".journal") < 0) {
+                    throw new IllegalArgumentException("No snapshot named " + name + " in " + directory);
+                }
+                continue;
+            }
+            try (InputStream in = Files.newInputStream(path.resolve(fileName(name, generation, "snapshot")))) {
+                TabulatedFunction function = TabulatedFunctions.inputTabulatedFunction(in);
+                Path journal = path.resolve(fileName(name, generation, "journal"));
+                while (Files.exists(journal)) {
+                    replay(function, journal);
+                    generation++;
+                    journal = path.resolve(fileName(name, generation, "journal"));
+                }
+                // журнал поколения создаётся раньше его снимка и удаляется только после более нового снимка,
+                // поэтому снимок не старше первого отсутствующего журнала значит, что цепочка оборвана удалением
+                if (latestGeneration(path, name, ".snapshot") < generation) {
+                    return function;
+                }
+            } catch (NoSuchFileException e) {
+                if (attempt >= RECOVERY_ATTEMPTS) {
+                    throw new RuntimeException("Journal files of " + name + " kept disappearing during recovery", e);
+                }
+                continue;
+            } catch (IOException e) {
+                throw new RuntimeException("Error recovering " + name + " from " + directory, e);
+            }
+            if (attempt >= RECOVERY_ATTEMPTS) {
+                throw new RuntimeException("Journal of " + name + " kept being truncated during recovery");
+            }
+        }
+    }
+
+    private static void replay(TabulatedFunction function, Path journal) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+            byte[] record = new byte[RECORD_BYTES];
+            while (true) {
+                try {
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    break; // оборванная последняя запись отбрасывается
+                }
+                ByteBuffer data = ByteBuffer.wrap(record);
+                byte type = data.get();
+                int index = data.getInt();
+                double x = data.getDouble();
+                double y = data.getDouble();
+                if (type == UPDATE) {
+                    function.setPoint(index, new FunctionPoint(x, y));
+                } else if (type == INSERT) {
+                    function.addPoint(new FunctionPoint(x, y));
+                } else if (type == REMOVE) {
+                    function.deletePoint(index);
+                } else {
+                    throw new IOException("Unknown journal record type " + type);
+                }
+            }
+        } catch (InappropriateFunctionPointException e) {
+            throw new RuntimeException("Error replaying journal " + journal, e);
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void pointsUpdated(TabulatedFunction source, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i <= toIndex; i++) {
+            append(UPDATE, i, source.getPointX(i), source.getPointY(i));
+        }
+    }
+
+    @Override
+    public synchronized void pointsInserted(TabulatedFunction source, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i <= toIndex; i++) {
+            append(INSERT, i, source.getPointX(i), source.getPointY(i));
+        }
+    }
+
+    @Override
+    public synchronized void pointsRemoved(TabulatedFunction source, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i <= toIndex; i++) {
+            append(REMOVE, fromIndex, 0, 0);
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            buffer.clear();
+            if (sync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing journal of tabulated function", e);
+        }
+    }
+
+    // переключает запись на пустой журнал следующего поколения; снимок этого поколения пишется в фоне,
+    // после чего файлы прежних поколений удаляются. В потоке записи остаётся только копирование точек
+    public synchronized void checkpoint() {
+        checkSnapshotFailure();
+        flush();
+        double[] xs = Segments.xValues(function);
+        double[] ys = Segments.yValues(function);
+        generation++;
+        long target = generation;
+        try {
+            journal.close();
+            openJournal();
+        } catch (IOException e) {
+            throw new RuntimeException("Error starting journal generation " + target, e);
+        }
+        snapshotWriter.execute(() -> {
+            try {
+                writeSnapshot(target, xs, ys);
+                deleteGenerationsBefore(target);
+            } catch (IOException e) {
+                // старые поколения остаются на диске, восстановление по ним по-прежнему возможно
+                snapshotFailure = e;
+            }
+        });
+    }
+
+    // дожидается фоновых снимков
+    @Override
+    public synchronized void close() {
+        function.removeListener(this);
+        flush();
+        snapshotWriter.shutdown();
+        try {
+            journal.close();
+            snapshotWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing journal of tabulated function", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkSnapshotFailure();
+    }
+
+    private void checkSnapshotFailure() {
+        IOException failure = snapshotFailure;
+        if (failure != null) {
+            snapshotFailure = null;
+            throw new RuntimeException("Error writing snapshot of tabulated function", failure);
+        }
+    }
+
+    private void append(byte type, int index, double x, double y) {
+        buffer.put(type).putInt(index).putDouble(x).putDouble(y);
+        recordsSinceCheckpoint++;
+        if (checkpointInterval > 0 && recordsSinceCheckpoint >= checkpointInterval) {
+            checkpoint();
+        } else if (!buffer.hasRemaining()) {
+            flush();
+        }
+    }
+
+    // тот же формат, что у outputTabulatedFunction, но из скопированных точек
+    private void writeSnapshot(long target, double[] xs, double[] ys) throws IOException {
+        Path snapshot = directory.resolve(fileName(name, target, "snapshot"));
+        Path temporary = directory.resolve(fileName(name, target, "snapshot.tmp"));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(xs.length);
+            for (int i = 0; i < xs.length; i++) {
+                out.writeDouble(xs[i]);
+                out.writeDouble(ys[i]);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    private void openJournal() throws IOException {
+        journal = FileChannel.open(directory.resolve(fileName(name, generation, "journal")),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        recordsSinceCheckpoint = 0;
+        if (sync) {
+            syncDirectory();
+        }
+    }
+
+    // новое имя файла (созданного или переименованного) переживает сбой только после fsync каталога
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void deleteGenerationsBefore(long target) throws IOException {
+        for (String extension : new String[]{".snapshot", ".journal"}) {
+            for (long old : generations(directory, name, extension)) {
+                if (old < target) {
+                    Files.deleteIfExists(directory.resolve(fileName(name, old, extension.substring(1))));
+                }
+            }
+        }
+    }
+
+    private static long latestGeneration(Path directory, String name, String extension) {
+        long latest = -1;
+        for (long generation : generations(directory, name, extension)) {
+            latest = Math.max(latest, generation);
+        }
+        return latest;
+    }
+
+    private static long[] generations(Path directory, String name, String extension) {
+        File[] files = directory.toFile().listFiles();
+        if (files == null) {
+            return new long[0];
+        }
+        long[] found = new long[files.length];
+        int count = 0;
+        String prefix = name + ".";
+        for (File file : files) {
+            String fileName = file.getName();
+            if (fileName.startsWith(prefix) && fileName.endsWith(extension)) {
+                try {
+                    found[count] = Long.parseLong(
+                            fileName.substring(prefix.length(), fileName.length() - extension.length()));
+                    count++;
+                } catch (NumberFormatException e) {
+                    // посторонний файл с похожим именем
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private static String fileName(String name, long generation, String extension) {
+        return name + "." + generation + "." + extension;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package functions;
+
+// диапазоны индексов включительные и указаны в нумерации после изменения (для удаления — до изменения)
+public interface TabulatedFunctionListener {
+    void pointsUpdated(TabulatedFunction function, int fromIndex, int toIndex);
+    void pointsInserted(TabulatedFunction function, int fromIndex, int toIndex);
+    void pointsRemoved(TabulatedFunction function, int fromIndex, int toIndex);
+}
\ No newline at end of file
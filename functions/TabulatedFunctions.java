@@ -1,7 +1,25 @@
 package functions;
 
+import functions.basic.*;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 public final class TabulatedFunctions {
     private TabulatedFunctions() {
@@ -23,6 +41,67 @@ public final class TabulatedFunctions {
         }
         return new ArrayTabulatedFunction(points);
     }
+    // все функции на одной сетке за один параллельный проход: каждый x вычисляется один раз
+    public static FunctionTable tabulate(Function[] functions, double leftX, double rightX, int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2");
+        }
+        for (Function function : functions) {
+            if (leftX < function.getLeftDomainBorder() - 1e-10 ||
+                    rightX > function.getRightDomainBorder() + 1e-10) {
+                throw new IllegalArgumentException("Tabulation interval is outside function domain");
+            }
+        }
+        double[] xs = new double[pointsCount];
+        double[][] ys = new double[functions.length][pointsCount];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        IntStream.range(0, pointsCount).parallel().forEach(i -> {
+            double x = leftX + i * step;
+            xs[i] = x;
+            for (int k = 0; k < functions.length; k++) {
+                ys[k][i] = functions[k].getFunctionValue(x);
+            }
+        });
+        return new FunctionTable(xs, ys);
+    }
+    // хранится один период; для синуса и косинуса - только четверть волны
+    public static PeriodicTabulatedFunction tabulatePeriodic(TrigonometricFunction function, int pointsCount) {
+        double period = function.getPeriod();
+        if (function instanceof Sin || function instanceof FastSin) {
+            return new PeriodicTabulatedFunction(samplePeriod(function, 0, period / 4, pointsCount), period, true);
+        }
+        if (function instanceof Cos || function instanceof FastCos) {
+            // cos(x) = P(x + T/4), где P(t) = cos(t - T/4) имеет симметрию синуса
+            double quarter = period / 4;
+            return new PeriodicTabulatedFunction(samplePeriod(function, -quarter, quarter, pointsCount), period, true)
+                    .shift(-quarter, 0);
+        }
+        return tabulatePeriodic(function, period, pointsCount);
+    }
+    public static PeriodicTabulatedFunction tabulatePeriodic(Function function, double period, int pointsCount) {
+        return new PeriodicTabulatedFunction(samplePeriod(function, 0, period, pointsCount), period, false);
+    }
+    private static double[] samplePeriod(Function function, double from, double length, int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2");
+        }
+        double[] ys = new double[pointsCount];
+        double step = length / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            ys[i] = function.getFunctionValue(from + i * step);
+        }
+        return ys;
+    }
+    public static LazyTabulatedFunction tabulateLazily(Function function, double leftX, double rightX, int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2");
+        }
+        if (leftX < function.getLeftDomainBorder() - 1e-10 ||
+                rightX > function.getRightDomainBorder() + 1e-10) {
+            throw new IllegalArgumentException("Tabulation interval is outside function domain");
+        }
+        return new LazyTabulatedFunction(function, leftX, rightX, pointsCount);
+    }
     public static void outputTabulatedFunction(TabulatedFunction function, OutputStream out) {
         try (DataOutputStream dos = new DataOutputStream(out)) {
             dos.writeInt(function.getPointsCount());
@@ -52,6 +131,142 @@ public final class TabulatedFunctions {
             throw new RuntimeException("Error reading tabulated function from stream", e);
         }
     }
+    // столбцовый формат: число точек, число столбцов, затем столбец x и столбцы y подряд
+    public static void outputFunctionTable(FunctionTable table, OutputStream out) {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out))) {
+            dos.writeInt(table.getPointsCount());
+            dos.writeInt(table.getColumnsCount());
+            for (double x : table.xColumn()) {
+                dos.writeDouble(x);
+            }
+            for (int k = 0; k < table.getColumnsCount(); k++) {
+                for (double y : table.yColumn(k)) {
+                    dos.writeDouble(y);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing function table to stream", e);
+        }
+    }
+    public static FunctionTable inputFunctionTable(InputStream in) {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(in))) {
+            int pointsCount = dis.readInt();
+            int columnsCount = dis.readInt();
+            if (pointsCount < 2 || columnsCount < 0) {
+                throw new IllegalArgumentException("Invalid data: " + pointsCount + " points, " + columnsCount + " columns");
+            }
+            double[] xs = new double[pointsCount];
+            for (int i = 0; i < pointsCount; i++) {
+                xs[i] = dis.readDouble();
+            }
+            double[][] ys = new double[columnsCount][pointsCount];
+            for (int k = 0; k < columnsCount; k++) {
+                for (int i = 0; i < pointsCount; i++) {
+                    ys[k][i] = dis.readDouble();
+                }
+            }
+            return new FunctionTable(xs, ys);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading function table from stream", e);
+        }
+    }
+    public static NativeTabulatedFunction inputNativeTabulatedFunction(InputStream in) {
+        try (ReadableByteChannel channel = (in instanceof FileInputStream)
+                ? ((FileInputStream) in).getChannel()
+                : Channels.newChannel(in)) {
+            return NativeTabulatedFunction.read(channel);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading tabulated function from stream", e);
+        }
+    }
+    // табулирование сразу в поток порциями, без построения таблицы в памяти; байты совпадают с outputTabulatedFunction(tabulate(...))
+    public static void outputTabulatedFunction(Function function, double leftX, double rightX, int pointsCount,
+                                               OutputStream out, boolean parallel) {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out))) {
+            dos.writeInt(pointsCount);
+            forEachChunk(function, leftX, rightX, pointsCount, parallel, (xs, ys, count) -> {
+                for (int i = 0; i < count; i++) {
+                    dos.writeDouble(xs[i]);
+                    dos.writeDouble(ys[i]);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing tabulated function to stream", e);
+        }
+    }
+    public static void writeTabulatedFunction(Function function, double leftX, double rightX, int pointsCount,
+                                              Writer out, boolean parallel) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(out))) {
+            writer.print(pointsCount);
+            forEachChunk(function, leftX, rightX, pointsCount, parallel, (xs, ys, count) -> {
+                for (int i = 0; i < count; i++) {
+                    writer.print(" " + xs[i] + " " + ys[i]);
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing tabulated function to writer", e);
+        }
+    }
+    private interface ChunkConsumer {
+        void accept(double[] xs, double[] ys, int count) throws IOException;
+    }
+    private static final int STREAM_CHUNK = 8192;
+    // при parallel порции считаются в ForkJoinPool, но не более окна из нескольких порций сразу, и выводятся по порядку
+    private static void forEachChunk(Function function, double leftX, double rightX, int pointsCount,
+                                     boolean parallel, ChunkConsumer consumer) throws IOException {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Points count must be at least 2");
+        }
+        if (leftX < function.getLeftDomainBorder() - 1e-10 ||
+                rightX > function.getRightDomainBorder() + 1e-10) {
+            throw new IllegalArgumentException("Tabulation interval is outside function domain");
+        }
+        double step = (rightX - leftX) / (pointsCount - 1);
+        int chunks = (pointsCount + STREAM_CHUNK - 1) / STREAM_CHUNK;
+        if (!parallel) {
+            double[][] chunk = new double[2][STREAM_CHUNK];
+            for (int c = 0; c < chunks; c++) {
+                int count = fillChunk(function, leftX, step, pointsCount, c, chunk);
+                consumer.accept(chunk[0], chunk[1], count);
+            }
+            return;
+        }
+        int window = 2 * Runtime.getRuntime().availableProcessors();
+        ArrayDeque<CompletableFuture<double[][]>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        for (int c = 0; c < chunks; c++) {
+            while (submitted < chunks && pending.size() < window) {
+                int number = submitted++;
+                pending.add(CompletableFuture.supplyAsync(() -> {
+                    double[][] chunk = new double[2][STREAM_CHUNK];
+                    fillChunk(function, leftX, step, pointsCount, number, chunk);
+                    return chunk;
+                }));
+            }
+            double[][] chunk;
+            try {
+                chunk = pending.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while tabulating", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error tabulating function", e.getCause());
+            }
+            consumer.accept(chunk[0], chunk[1], Math.min(STREAM_CHUNK, pointsCount - c * STREAM_CHUNK));
+        }
+    }
+    private static int fillChunk(Function function, double leftX, double step, int pointsCount,
+                                 int number, double[][] chunk) {
+        int from = number * STREAM_CHUNK;
+        int count = Math.min(STREAM_CHUNK, pointsCount - from);
+        for (int i = 0; i < count; i++) {
+            double x = leftX + (from + i) * step;
+            chunk[0][i] = x;
+            chunk[1][i] = function.getFunctionValue(x);
+        }
+        return count;
+    }
     public static void writeTabulatedFunction(TabulatedFunction function, Writer out) {
         try (PrintWriter writer = new PrintWriter(out)) {
             writer.print(function.getPointsCount());
@@ -64,6 +279,115 @@ public final class TabulatedFunctions {
             throw new RuntimeException("Error writing tabulated function to writer", e);
         }
     }
+    // формат файла с несколькими функциями: по одной записи writeTabulatedFunction на строку
+    public static void writeTabulatedFunctions(List<? extends TabulatedFunction> functions, Writer out) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(out))) {
+            for (TabulatedFunction function : functions) {
+                writer.print(function.getPointsCount());
+                PointCursor cursor = function.cursor(0);
+                while (cursor.next()) {
+                    writer.print(" " + cursor.x() + " " + cursor.y());
+                }
+                writer.print('\n');
+            }
+            writer.flush();
+        } catch (Exception e) {
+            throw new RuntimeException("Error writing tabulated functions to writer", e);
+        }
+    }
+    private static final long MIN_PARSE_CHUNK = 1L << 20;
+    private static final long MAX_PARSE_CHUNK = 64L << 20;
+    private static final int LINE_SCAN_BLOCK = 8192;
+    // файл отображается в память кусками, границы кусков сдвигаются к концам строк, куски разбираются в ForkJoinPool
+    public static List<TabulatedFunction> readTabulatedFunctions(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            long size = channel.size();
+            long chunk = Math.max(MIN_PARSE_CHUNK, Math.min(MAX_PARSE_CHUNK,
+                    size / (4L * Runtime.getRuntime().availableProcessors())));
+            List<long[]> ranges = new ArrayList<>();
+            ByteBuffer block = ByteBuffer.allocate(LINE_SCAN_BLOCK);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + chunk);
+                if (end < size) {
+                    end = lineEnd(channel, end - 1, size, block);
+                }
+                ranges.add(new long[]{start, end});
+                start = end;
+            }
+            return ranges.parallelStream()
+                    .map(range -> parseFunctions(channel, range[0], range[1]))
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading tabulated functions from " + file, e);
+        }
+    }
+    // позиция сразу за первым '\n' начиная с position; файл читается блоками, а не по байту за вызов
+    private static long lineEnd(FileChannel channel, long position, long size, ByteBuffer block) throws IOException {
+        while (position < size) {
+            block.clear();
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+    private static List<TabulatedFunction> parseFunctions(FileChannel channel, long from, long to) {
+        MappedByteBuffer data;
+        try {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<TabulatedFunction> functions = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        double[] values = null;
+        int expected = 0;
+        int read = 0;
+        int limit = data.limit();
+        for (int i = 0; i <= limit; i++) {
+            char c = i < limit ? (char) data.get(i) : ' ';
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                token.append(c);
+                continue;
+            }
+            if (token.length() == 0) {
+                continue;
+            }
+            double value = Double.parseDouble(token.toString());
+            token.setLength(0);
+            if (values == null) {
+                expected = (int) value;
+                if (expected < 2) {
+                    throw new IllegalArgumentException("Points count must be at least 2");
+                }
+                values = new double[2 * expected];
+                read = 0;
+                continue;
+            }
+            values[read++] = value;
+            if (read == values.length) {
+                FunctionPoint[] points = new FunctionPoint[expected];
+                for (int k = 0; k < expected; k++) {
+                    points[k] = new FunctionPoint(values[2 * k], values[2 * k + 1]);
+                }
+                functions.add(new ArrayTabulatedFunction(points));
+                values = null;
+            }
+        }
+        if (values != null) {
+            throw new IllegalArgumentException("Record is cut at byte " + (from + limit));
+        }
+        return functions;
+    }
     public static TabulatedFunction readTabulatedFunction(Reader in) {
         try {
             StreamTokenizer tokenizer = new StreamTokenizer(in);
@@ -92,4 +416,273 @@ public final class TabulatedFunctions {
             throw new RuntimeException("Error reading tabulated function from reader", e);
         }
     }
+    // самое компактное хранение, укладывающееся в заданную погрешность; иначе полная копия в double
+    public static TabulatedFunction compact(TabulatedFunction function, double maxError) {
+        for (CompactTabulatedFunction.Precision precision : new CompactTabulatedFunction.Precision[]{
+                CompactTabulatedFunction.Precision.QUANTIZED16, CompactTabulatedFunction.Precision.FLOAT32}) {
+            try {
+                CompactTabulatedFunction compact = new CompactTabulatedFunction(function, precision);
+                if (compact.getMaxError() <= maxError) {
+                    return compact;
+                }
+            } catch (IllegalArgumentException e) {
+                // этот режим не может представить функцию, пробуем следующий
+            }
+        }
+        FunctionPoint[] points = new FunctionPoint[function.getPointsCount()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = function.getPoint(i);
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+    public static DoubleStream xValues(TabulatedFunction function) {
+        return StreamSupport.doubleStream(new PointSpliterator(function, true, 0, function.getPointsCount()), false);
+    }
+    public static DoubleStream yValues(TabulatedFunction function) {
+        return StreamSupport.doubleStream(new PointSpliterator(function, false, 0, function.getPointsCount()), false);
+    }
+    public static TabulatedFunction simplify(TabulatedFunction function, double tolerance) {
+        return simplify(function, tolerance, false);
+    }
+    // прореживание с гарантией |исходная - упрощённая| <= tolerance во всех точках области определения;
+    // жадный проход за O(n) с сужающимся конусом допустимых наклонов, куски таблицы обрабатываются независимо
+    public static TabulatedFunction simplify(TabulatedFunction function, double tolerance, boolean parallel) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Tolerance must be non-negative, got: " + tolerance);
+        }
+        double[] xs = Segments.xValues(function);
+        double[] ys = Segments.yValues(function);
+        int chunkSize = 1 << 16;
+        int chunks = (xs.length - 2) / chunkSize + 1;
+        IntStream numbers = IntStream.range(0, chunks);
+        int[][] kept = (parallel ? numbers.parallel() : numbers)
+                .mapToObj(c -> simplifyRange(xs, ys, c * chunkSize,
+                        Math.min(xs.length - 1, (c + 1) * chunkSize), tolerance))
+                .toArray(int[][]::new);
+        int count = 1;
+        for (int[] part : kept) {
+            count += part.length;
+        }
+        FunctionPoint[] points = new FunctionPoint[count];
+        int position = 0;
+        for (int[] part : kept) {
+            for (int index : part) {
+                points[position++] = new FunctionPoint(xs[index], ys[index]);
+            }
+        }
+        points[position] = new FunctionPoint(xs[xs.length - 1], ys[ys.length - 1]);
+        return new ArrayTabulatedFunction(points);
+    }
+    // индексы сохраняемых точек на [from, to), точка to остаётся началом следующего куска
+    private static int[] simplifyRange(double[] xs, double[] ys, int from, int to, double tolerance) {
+        int[] kept = new int[to - from];
+        int count = 0;
+        int anchor = from;
+        kept[count++] = anchor;
+        double low = Double.NEGATIVE_INFINITY;
+        double high = Double.POSITIVE_INFINITY;
+        for (int j = from + 1; j <= to; j++) {
+            double dx = xs[j] - xs[anchor];
+            double slope = (ys[j] - ys[anchor]) / dx;
+            if (slope < low || slope > high) {
+                anchor = j - 1;
+                kept[count++] = anchor;
+                low = Double.NEGATIVE_INFINITY;
+                high = Double.POSITIVE_INFINITY;
+                dx = xs[j] - xs[anchor];
+            }
+            low = Math.max(low, (ys[j] - tolerance - ys[anchor]) / dx);
+            high = Math.min(high, (ys[j] + tolerance - ys[anchor]) / dx);
+        }
+        return Arrays.copyOf(kept, count);
+    }
+    public static AccuracyProfile profileAccuracy(Function reference, TabulatedFunction function, int samples) {
+        return AccuracyProfile.measure(reference, function,
+                function.getLeftDomainBorder(), function.getRightDomainBorder(), samples);
+    }
+    public static AccuracyProfile profileAccuracy(Function reference, TabulatedFunction function,
+                                                  double leftX, double rightX, int samples) {
+        return AccuracyProfile.measure(reference, function, leftX, rightX, samples);
+    }
+    // табулирует reference при каждом числе точек и подбирает порядок сходимости
+    public static AccuracyProfile.Convergence sweepAccuracy(Function reference, double leftX, double rightX,
+                                                            int[] pointsCounts, int samples) {
+        AccuracyProfile[] profiles = new AccuracyProfile[pointsCounts.length];
+        for (int i = 0; i < pointsCounts.length; i++) {
+            TabulatedFunction function = tabulate(reference, leftX, rightX, pointsCounts[i]);
+            profiles[i] = AccuracyProfile.measure(reference, function, leftX, rightX, samples);
+        }
+        return new AccuracyProfile.Convergence(pointsCounts, profiles);
+    }
+    public static TabulatedInverse inverse(TabulatedFunction function) {
+        return new TabulatedInverse(function);
+    }
+    public static double[] findRoots(TabulatedFunction function) {
+        return findLevelCrossings(function, 0.0);
+    }
+    public static double[] findLevelCrossings(TabulatedFunction function, double level) {
+        int count = function.getPointsCount();
+        double[] crossings = new double[count];
+        int found = 0;
+        double x1 = function.getPointX(0);
+        double y1 = function.getPointY(0) - level;
+        if (y1 == 0) {
+            crossings[found++] = x1;
+        }
+        for (int i = 1; i < count; i++) {
+            double x2 = function.getPointX(i);
+            double y2 = function.getPointY(i) - level;
+            if (y2 == 0) {
+                crossings[found++] = x2;
+            } else if ((y1 < 0 && y2 > 0) || (y1 > 0 && y2 < 0)) {
+                if (found == crossings.length) {
+                    crossings = Arrays.copyOf(crossings, 2 * found);
+                }
+                crossings[found++] = x1 - y1 * (x2 - x1) / (y2 - y1);
+            }
+            x1 = x2;
+            y1 = y2;
+        }
+        return Arrays.copyOf(crossings, found);
+    }
+    public static TabulatedFunction sum(TabulatedFunction f1, TabulatedFunction f2) {
+        return merge(f1, f2, Double::sum, false);
+    }
+    public static TabulatedFunction sum(TabulatedFunction f1, TabulatedFunction f2, boolean onFirstGrid) {
+        return merge(f1, f2, Double::sum, onFirstGrid);
+    }
+    public static TabulatedFunction mult(TabulatedFunction f1, TabulatedFunction f2) {
+        return merge(f1, f2, (a, b) -> a * b, false);
+    }
+    public static TabulatedFunction mult(TabulatedFunction f1, TabulatedFunction f2, boolean onFirstGrid) {
+        return merge(f1, f2, (a, b) -> a * b, onFirstGrid);
+    }
+    public static TabulatedFunction power(TabulatedFunction function, double power) {
+        FunctionPoint[] points = new FunctionPoint[function.getPointsCount()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new FunctionPoint(function.getPointX(i), Math.pow(function.getPointY(i), power));
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+    // f2(f1(x)) в виде таблицы: к узлам f1 добавляются точки, где образ f1 пересекает узлы f2
+    public static TabulatedFunction composition(TabulatedFunction f1, TabulatedFunction f2) {
+        double[] xs1 = Segments.xValues(f1);
+        double[] ys1 = Segments.yValues(f1);
+        double[] xs2 = Segments.xValues(f2);
+        double[] ys2 = Segments.yValues(f2);
+        double outerLeft = xs2[0];
+        double outerRight = xs2[xs2.length - 1];
+
+        double[] grid = new double[2 * xs1.length];
+        int count = 0;
+        for (int i = 0; i < xs1.length; i++) {
+            grid = ensureCapacity(grid, count);
+            count = appendPoint(grid, count, xs1[i]);
+            if (i == xs1.length - 1) {
+                break;
+            }
+            double u1 = ys1[i];
+            double u2 = ys1[i + 1];
+            if (u1 == u2) {
+                continue;
+            }
+            int from = firstBreakpointAbove(xs2, Math.min(u1, u2));
+            int to = firstBreakpointAbove(xs2, Math.max(u1, u2) - 1e-10) - 1;
+            for (int k = 0; k <= to - from; k++) {
+                double u = xs2[u1 < u2 ? from + k : to - k];
+                if (u - Math.min(u1, u2) < 1e-10) {
+                    continue;
+                }
+                double x = xs1[i] + (xs1[i + 1] - xs1[i]) * (u - u1) / (u2 - u1);
+                grid = ensureCapacity(grid, count);
+                count = appendPoint(grid, count, x);
+            }
+        }
+
+        FunctionPoint[] points = new FunctionPoint[count];
+        int segment1 = 0;
+        for (int k = 0; k < count; k++) {
+            double x = grid[k];
+            while (segment1 < xs1.length - 2 && xs1[segment1 + 1] <= x) {
+                segment1++;
+            }
+            double u = Segments.interpolate(xs1, ys1, segment1, x);
+            double y = Double.NaN;
+            if (u >= outerLeft - 1e-10 && u <= outerRight + 1e-10) {
+                y = Segments.interpolate(xs2, ys2, Segments.find(xs2, xs2.length, u), u);
+            }
+            points[k] = new FunctionPoint(x, y);
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+    private static double[] ensureCapacity(double[] grid, int count) {
+        return count < grid.length ? grid : Arrays.copyOf(grid, 2 * grid.length);
+    }
+    private static int appendPoint(double[] grid, int count, double x) {
+        if (count > 0 && x - grid[count - 1] < 1e-10) {
+            return count;
+        }
+        grid[count] = x;
+        return count + 1;
+    }
+    private static int firstBreakpointAbove(double[] xs, double value) {
+        int low = 0;
+        int high = xs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] > value) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    // слияние двух сеток за один проход O(n + m); значения каждой функции берутся движущимся указателем
+    private static TabulatedFunction merge(TabulatedFunction f1, TabulatedFunction f2,
+                                           DoubleBinaryOperator operation, boolean onFirstGrid) {
+        double[] xs1 = Segments.xValues(f1);
+        double[] ys1 = Segments.yValues(f1);
+        double[] xs2 = Segments.xValues(f2);
+        double[] ys2 = Segments.yValues(f2);
+        double left = Math.max(xs1[0], xs2[0]);
+        double right = Math.min(xs1[xs1.length - 1], xs2[xs2.length - 1]);
+        if (right - left < 1e-10) {
+            throw new IllegalArgumentException("Function domains do not intersect");
+        }
+        double[] grid = new double[xs1.length + xs2.length + 2];
+        int count = 0;
+        int i = 0;
+        int j = onFirstGrid ? xs2.length : 0;
+        grid[count++] = left;
+        while (i < xs1.length || j < xs2.length) {
+            double x;
+            if (j >= xs2.length || (i < xs1.length && xs1[i] <= xs2[j])) {
+                x = xs1[i++];
+            } else {
+                x = xs2[j++];
+            }
+            if (x > left + 1e-10 && x < right - 1e-10 && x - grid[count - 1] >= 1e-10) {
+                grid[count++] = x;
+            }
+        }
+        grid[count++] = right;
+
+        FunctionPoint[] points = new FunctionPoint[count];
+        int segment1 = 0;
+        int segment2 = 0;
+        for (int k = 0; k < count; k++) {
+            double x = grid[k];
+            while (segment1 < xs1.length - 2 && xs1[segment1 + 1] <= x) {
+                segment1++;
+            }
+            while (segment2 < xs2.length - 2 && xs2[segment2 + 1] <= x) {
+                segment2++;
+            }
+            double y1 = Segments.interpolate(xs1, ys1, segment1, x);
+            double y2 = Segments.interpolate(xs2, ys2, segment2, x);
+            points[k] = new FunctionPoint(x, operation.applyAsDouble(y1, y2));
+        }
+        return new ArrayTabulatedFunction(points);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package functions;
+
+import java.util.Arrays;
+
+public final class TabulatedInverse {
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] runStarts;
+
+    TabulatedInverse(TabulatedFunction function) {
+        xs = Segments.xValues(function);
+        ys = Segments.yValues(function);
+        int[] starts = new int[xs.length];
+        int runs = 1;
+        int direction = 0;
+        for (int i = 0; i < xs.length - 1; i++) {
+            int step = Double.compare(ys[i + 1], ys[i]);
+            if (step == 0) {
+                continue;
+            }
+            if (direction != 0 && step != direction) {
+                starts[runs++] = i;
+            }
+            direction = step;
+        }
+        runStarts = Arrays.copyOf(starts, runs);
+    }
+
+    public int getMonotoneRunsCount() {
+        return runStarts.length;
+    }
+
+    public boolean isMonotone() {
+        return runStarts.length == 1;
+    }
+
+    public double getArgument(double y) {
+        if (!isMonotone()) {
+            throw new IllegalStateException(
+                    "Function is not monotone: " + runStarts.length + " monotone runs, use getArguments");
+        }
+        return searchRun(0, xs.length - 1, y);
+    }
+
+    public double[] getArguments(double y) {
+        double[] result = new double[runStarts.length];
+        int count = 0;
+        for (int r = 0; r < runStarts.length; r++) {
+            int end = (r + 1 < runStarts.length) ? runStarts[r + 1] : xs.length - 1;
+            double x = searchRun(runStarts[r], end, y);
+            if (!Double.isNaN(x) && (count == 0 || x != result[count - 1])) {
+                result[count++] = x;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // бинарный поиск внутри монотонного участка [from, to]; NaN, если y не достигается
+    private double searchRun(int from, int to, double y) {
+        boolean increasing = ys[to] >= ys[from];
+        double low = increasing ? ys[from] : ys[to];
+        double high = increasing ? ys[to] : ys[from];
+        if (y < low || y > high) {
+            return Double.NaN;
+        }
+        int left = from;
+        int right = to;
+        while (right - left > 1) {
+            int mid = (left + right) >>> 1;
+            if (increasing ? ys[mid] < y : ys[mid] > y) {
+                left = mid;
+            } else {
+                right = mid;
+            }
+        }
+        if (ys[left] == y) {
+            return xs[left];
+        }
+        if (ys[right] == ys[left]) {
+            return xs[right];
+        }
+        return xs[left] + (xs[right] - xs[left]) * (y - ys[left]) / (ys[right] - ys[left]);
+    }
+}
\ No newline at end of file
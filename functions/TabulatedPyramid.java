@@ -0,0 +1,225 @@
+package functions;
+
+// пирамида уровней детализации: на уровне L корзина k агрегирует точки [k * 2^L, (k + 1) * 2^L)
+// стоимость: downsample - O(log(ширина корзины)) узлов на корзину, изменение точки - O(log n),
+// вставка и удаление - O(n - fromIndex) без выделения памяти, пока хватает запаса ёмкости
+public class TabulatedPyramid implements TabulatedFunctionListener, AutoCloseable {
+    private final TabulatedFunction source;
+    private double[] xs;
+    private int count;
+    private double[][] mins;
+    private double[][] maxs;
+    private double[][] sums;
+
+    public static final class Bucket {
+        private final double leftX;
+        private final double rightX;
+        private final double min;
+        private final double max;
+        private final double average;
+        private final int pointsCount;
+
+        Bucket(double leftX, double rightX, double min, double max, double average, int pointsCount) {
+            this.leftX = leftX;
+            this.rightX = rightX;
+            this.min = min;
+            this.max = max;
+            this.average = average;
+            this.pointsCount = pointsCount;
+        }
+
+        public double getLeftX() {
+            return leftX;
+        }
+
+        public double getRightX() {
+            return rightX;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return average;
+        }
+
+        public int getPointsCount() {
+            return pointsCount;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + leftX + ", " + rightX + "]: min=" + min + ", max=" + max + ", avg=" + average;
+        }
+    }
+
+    public TabulatedPyramid(TabulatedFunction source) {
+        this.source = source;
+        rebuild();
+        source.addListener(this);
+    }
+
+    // не более buckets корзин по точкам из [leftX, rightX]; каждая корзина собирается, как запрос к дереву отрезков:
+    // из наибольших узлов, целиком лежащих внутри неё, поэтому точки за краями окна в неё не попадают
+    public Bucket[] downsample(double leftX, double rightX, int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Buckets count must be positive, got: " + buckets);
+        }
+        if (leftX > rightX) {
+            throw new IllegalArgumentException("Left border must not exceed right border");
+        }
+        int from = Segments.find(xs, count, leftX);
+        // find прижимает индекс к последнему отрезку, поэтому за правым краем таблицы нужен ещё шаг
+        while (from < count && xs[from] < leftX) {
+            from++;
+        }
+        int to = Segments.find(xs, count, rightX) + 1;
+        while (to >= 0 && xs[to] > rightX) {
+            to--;
+        }
+        if (from > to) {
+            return new Bucket[0];
+        }
+        int span = to - from + 1;
+        Bucket[] result = new Bucket[Math.min(buckets, span)];
+        int start = from;
+        for (int b = 0; b < result.length; b++) {
+            int end = (int) (from + (long) span * (b + 1) / result.length) - 1;
+            result[b] = aggregate(start, end);
+            start = end + 1;
+        }
+        return result;
+    }
+
+    private Bucket aggregate(int first, int last) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        int i = first;
+        while (i <= last) {
+            // поднимаемся, пока узел следующего уровня начинается в i и не выходит за last
+            int level = 0;
+            while (level + 1 < mins.length && (i & ((2 << level) - 1)) == 0 && i + (2L << level) - 1 <= last) {
+                level++;
+            }
+            int node = i >> level;
+            min = Math.min(min, mins[level][node]);
+            max = Math.max(max, maxs[level][node]);
+            sum += sums[level][node];
+            i += 1 << level;
+        }
+        int count = last - first + 1;
+        return new Bucket(xs[first], xs[last], min, max, sum / count, count);
+    }
+
+    @Override
+    public void pointsUpdated(TabulatedFunction function, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i <= toIndex; i++) {
+            load(function, i);
+            int node = i;
+            for (int level = 1; level < mins.length; level++) {
+                node >>= 1;
+                pull(level, node);
+            }
+        }
+    }
+
+    // хвост сдвигается на месте, пересчитываются только узлы правее вставки
+    @Override
+    public void pointsInserted(TabulatedFunction function, int fromIndex, int toIndex) {
+        int inserted = toIndex - fromIndex + 1;
+        if (count + inserted > xs.length) {
+            rebuild();
+            return;
+        }
+        shift(fromIndex, fromIndex + inserted, count - fromIndex);
+        count += inserted;
+        for (int i = fromIndex; i <= toIndex; i++) {
+            load(function, i);
+        }
+        pullFrom(fromIndex);
+    }
+
+    @Override
+    public void pointsRemoved(TabulatedFunction function, int fromIndex, int toIndex) {
+        int removed = toIndex - fromIndex + 1;
+        shift(toIndex + 1, fromIndex, count - toIndex - 1);
+        count -= removed;
+        pullFrom(Math.min(fromIndex, count - 1));
+    }
+
+    @Override
+    public void close() {
+        source.removeListener(this);
+    }
+
+    // ёмкость с запасом в половину, как у растущих массивов: вставки не перестраивают пирамиду каждый раз
+    private void rebuild() {
+        count = source.getPointsCount();
+        int capacity = count + (count >> 1) + 1;
+        int levels = 1;
+        while ((1 << (levels - 1)) < capacity) {
+            levels++;
+        }
+        xs = new double[capacity];
+        mins = new double[levels][];
+        maxs = new double[levels][];
+        sums = new double[levels][];
+        for (int level = 0; level < levels; level++) {
+            int size = ((capacity - 1) >> level) + 1;
+            mins[level] = new double[size];
+            maxs[level] = new double[size];
+            sums[level] = new double[size];
+        }
+        for (int i = 0; i < count; i++) {
+            load(source, i);
+        }
+        pullFrom(0);
+    }
+
+    private void load(TabulatedFunction function, int i) {
+        double y = function.getPointY(i);
+        xs[i] = function.getPointX(i);
+        mins[0][i] = y;
+        maxs[0][i] = y;
+        sums[0][i] = y;
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(xs, from, xs, to, length);
+        System.arraycopy(mins[0], from, mins[0], to, length);
+        System.arraycopy(maxs[0], from, maxs[0], to, length);
+        System.arraycopy(sums[0], from, sums[0], to, length);
+    }
+
+    // пересчёт всех узлов, покрывающих точки начиная с index
+    private void pullFrom(int index) {
+        for (int level = 1; level < mins.length; level++) {
+            int last = (count - 1) >> level;
+            for (int node = index >> level; node <= last; node++) {
+                pull(level, node);
+            }
+        }
+    }
+
+    // правый потомок за пределами count пуст
+    private void pull(int level, int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        double[] childMins = mins[level - 1];
+        if (((long) right << (level - 1)) < count) {
+            mins[level][node] = Math.min(childMins[left], childMins[right]);
+            maxs[level][node] = Math.max(maxs[level - 1][left], maxs[level - 1][right]);
+            sums[level][node] = sums[level - 1][left] + sums[level - 1][right];
+        } else {
+            mins[level][node] = childMins[left];
+            maxs[level][node] = maxs[level - 1][left];
+            sums[level][node] = sums[level - 1][left];
+        }
+    }
+}
\ No newline at end of file
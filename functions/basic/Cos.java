@@ -1,8 +1,20 @@
 package functions.basic;
 
+import functions.DualNumber;
+
 public class Cos extends TrigonometricFunction {
     @Override
     public double getFunctionValue(double x) {
         return Math.cos(x);
     }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        return x.cos();
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = Math.cos(xs[i]);
+        }
+    }
 }
\ No newline at end of file
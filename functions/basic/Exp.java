@@ -1,4 +1,5 @@
 package functions.basic;
+import functions.DualNumber;
 import functions.Function;
 public class Exp implements Function {
     @Override
@@ -13,4 +14,14 @@ public class Exp implements Function {
     public double getFunctionValue(double x) {
         return Math.exp(x);
     }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        return x.exp();
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = Math.exp(xs[i]);
+        }
+    }
 }
\ No newline at end of file
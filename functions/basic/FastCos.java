@@ -0,0 +1,31 @@
+package functions.basic;
+
+import functions.DualNumber;
+
+// cos через FastMath: быстрее Math.cos, погрешность не больше accuracy.getErrorBound()
+public class FastCos extends TrigonometricFunction {
+    private final FastMath.Accuracy accuracy;
+
+    public FastCos() {
+        this(FastMath.Accuracy.HIGH);
+    }
+    public FastCos(FastMath.Accuracy accuracy) {
+        this.accuracy = accuracy;
+    }
+    public FastMath.Accuracy getAccuracy() {
+        return accuracy;
+    }
+    @Override
+    public double getFunctionValue(double x) {
+        return FastMath.cos(x, accuracy);
+    }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        double v = x.getValue();
+        return new DualNumber(FastMath.cos(v, accuracy), -FastMath.sin(v, accuracy) * x.getDerivative());
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        FastMath.cos(xs, ys, accuracy);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package functions.basic;
+
+// приближённые ядра sin/cos/tan: редукция аргумента по Коди-Уэйту и многочлены без ветвлений в основной части
+// границы погрешности (проверяются в Benchmarks):
+//   sin, cos - абсолютная, при |x| <= 1e5 (дальше вызывается Math)
+//   tan      - относительная
+// exp и log здесь нет: Math.exp и Math.log - интринсики JIT, и ни ряды, ни таблицы с многочленом их не обгоняют
+public final class FastMath {
+    public enum Accuracy {
+        HIGH(1e-12), LOW(1e-7);
+
+        private final double errorBound;
+
+        Accuracy(double errorBound) {
+            this.errorBound = errorBound;
+        }
+
+        public double getErrorBound() {
+            return errorBound;
+        }
+    }
+
+    private static final double REDUCTION_LIMIT = 1e5;
+    private static final double TWO_OVER_PI = 6.36619772367581382433e-01;
+    // pi/2 = PIO2_1 + PIO2_2 + PIO2_3, первые две части по 33 бита: k * PIO2_i точно при |k| < 2^20
+    private static final double PIO2_1 = 1.57079632673412561417e+00;
+    private static final double PIO2_2 = 6.07710050630396597660e-11;
+    private static final double PIO2_3 = 2.02226624871116645580e-21;
+
+    private FastMath() {
+    }
+
+    public static double sin(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= REDUCTION_LIMIT)) {
+            return Math.sin(x);
+        }
+        return trig(x, 0, accuracy == Accuracy.HIGH);
+    }
+
+    public static double cos(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= REDUCTION_LIMIT)) {
+            return Math.cos(x);
+        }
+        return trig(x, 1, accuracy == Accuracy.HIGH);
+    }
+
+    public static double tan(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= REDUCTION_LIMIT)) {
+            return Math.tan(x);
+        }
+        boolean high = accuracy == Accuracy.HIGH;
+        double k = Math.rint(x * TWO_OVER_PI);
+        double r = ((x - k * PIO2_1) - k * PIO2_2) - k * PIO2_3;
+        double r2 = r * r;
+        double s = high ? sinHigh(r, r2) : sinLow(r, r2);
+        double c = high ? cosHigh(r2) : cosLow(r2);
+        // здесь выбор арифметикой не годится: c + (s - c) теряет относительную точность малого s
+        return (((int) k) & 1) == 0 ? s / c : -c / s;
+    }
+
+    // версии для массивов: тело цикла без вызовов и с предсказуемыми ветвлениями, удобно для автовекторизации
+    public static void sin(double[] xs, double[] out, Accuracy accuracy) {
+        checkLengths(xs, out);
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = sin(xs[i], accuracy);
+        }
+    }
+
+    public static void cos(double[] xs, double[] out, Accuracy accuracy) {
+        checkLengths(xs, out);
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = cos(xs[i], accuracy);
+        }
+    }
+
+    public static void tan(double[] xs, double[] out, Accuracy accuracy) {
+        checkLengths(xs, out);
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = tan(xs[i], accuracy);
+        }
+    }
+
+    // quadrantShift = 1 даёт cos(x) = sin(x + pi/2)
+    private static double trig(double x, int quadrantShift, boolean high) {
+        double k = Math.rint(x * TWO_OVER_PI);
+        double r = ((x - k * PIO2_1) - k * PIO2_2) - k * PIO2_3;
+        double r2 = r * r;
+        double s = high ? sinHigh(r, r2) : sinLow(r, r2);
+        double c = high ? cosHigh(r2) : cosLow(r2);
+        // квадрант выбирается арифметикой: случайные x дают непредсказуемые ветвления
+        int q = ((int) k + quadrantShift) & 3;
+        double v = s + (c - s) * (q & 1);
+        return v * (1 - (q & 2));
+    }
+
+    // ряды на |r| <= pi/4; первый отброшенный член меньше 2e-14 (HIGH) и 2e-9 (LOW)
+    private static double sinHigh(double r, double r2) {
+        return r + r * r2 * (-1.0 / 6 + r2 * (1.0 / 120 + r2 * (-1.0 / 5040 + r2 * (1.0 / 362880
+                + r2 * (-1.0 / 39916800 + r2 * (1.0 / 6227020800.0))))));
+    }
+
+    private static double cosHigh(double r2) {
+        return 1 + r2 * (-1.0 / 2 + r2 * (1.0 / 24 + r2 * (-1.0 / 720 + r2 * (1.0 / 40320
+                + r2 * (-1.0 / 3628800 + r2 * (1.0 / 479001600 + r2 * (-1.0 / 87178291200.0)))))));
+    }
+
+    private static double sinLow(double r, double r2) {
+        return r + r * r2 * (-1.0 / 6 + r2 * (1.0 / 120 + r2 * (-1.0 / 5040 + r2 * (1.0 / 362880))));
+    }
+
+    private static double cosLow(double r2) {
+        return 1 + r2 * (-1.0 / 2 + r2 * (1.0 / 24 + r2 * (-1.0 / 720 + r2 * (1.0 / 40320))));
+    }
+
+    private static void checkLengths(double[] xs, double[] out) {
+        if (out.length < xs.length) {
+            throw new IllegalArgumentException("Output array is shorter than input: " + out.length + " < " + xs.length);
+        }
+    }
+}
\ No newline at end of file
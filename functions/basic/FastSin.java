@@ -0,0 +1,31 @@
+package functions.basic;
+
+import functions.DualNumber;
+
+// sin через FastMath: быстрее Math.sin, погрешность не больше accuracy.getErrorBound()
+public class FastSin extends TrigonometricFunction {
+    private final FastMath.Accuracy accuracy;
+
+    public FastSin() {
+        this(FastMath.Accuracy.HIGH);
+    }
+    public FastSin(FastMath.Accuracy accuracy) {
+        this.accuracy = accuracy;
+    }
+    public FastMath.Accuracy getAccuracy() {
+        return accuracy;
+    }
+    @Override
+    public double getFunctionValue(double x) {
+        return FastMath.sin(x, accuracy);
+    }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        double v = x.getValue();
+        return new DualNumber(FastMath.sin(v, accuracy), FastMath.cos(v, accuracy) * x.getDerivative());
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        FastMath.sin(xs, ys, accuracy);
+    }
+}
\ No newline at end of file
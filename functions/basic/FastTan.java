@@ -0,0 +1,35 @@
+package functions.basic;
+
+import functions.DualNumber;
+
+// tan через FastMath: относительная погрешность не больше accuracy.getErrorBound()
+public class FastTan extends TrigonometricFunction {
+    private final FastMath.Accuracy accuracy;
+
+    public FastTan() {
+        this(FastMath.Accuracy.HIGH);
+    }
+    public FastTan(FastMath.Accuracy accuracy) {
+        this.accuracy = accuracy;
+    }
+    public FastMath.Accuracy getAccuracy() {
+        return accuracy;
+    }
+    @Override
+    public double getFunctionValue(double x) {
+        return FastMath.tan(x, accuracy);
+    }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        double t = FastMath.tan(x.getValue(), accuracy);
+        return new DualNumber(t, (1 + t * t) * x.getDerivative());
+    }
+    @Override
+    public double getPeriod() {
+        return Math.PI;
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        FastMath.tan(xs, ys, accuracy);
+    }
+}
\ No newline at end of file
@@ -1,12 +1,15 @@
 package functions.basic;
+import functions.DualNumber;
 import functions.Function;
 public class Log implements Function {
     private double base;
+    private double logBase;
     public Log(double base) {
         if (base <= 0 || Math.abs(base - 1) < 1e-10) {
             throw new IllegalArgumentException("Base must be positive and not equal to 1");
         }
         this.base = base;
+        this.logBase = Math.log(base);
     }
     @Override
     public double getLeftDomainBorder() {
@@ -21,9 +24,23 @@ public class Log implements Function {
         if (x <= 0) {
             return Double.NaN;
         }
-        return Math.log(x) / Math.log(base);
+        return Math.log(x) / logBase;
+    }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        if (x.getValue() <= 0) {
+            return DualNumber.nan();
+        }
+        return x.log().divide(logBase);
     }
     public double getBase() {
         return base;
     }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        for (int i = 0; i < xs.length; i++) {
+            double x = xs[i];
+            ys[i] = x <= 0 ? Double.NaN : Math.log(x) / logBase;
+        }
+    }
 }
\ No newline at end of file
@@ -1,8 +1,20 @@
 package functions.basic;
 
+import functions.DualNumber;
+
 public class Sin extends TrigonometricFunction {
     @Override
     public double getFunctionValue(double x) {
         return Math.sin(x);
     }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        return x.sin();
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = Math.sin(xs[i]);
+        }
+    }
 }
\ No newline at end of file
@@ -1,8 +1,24 @@
 package functions.basic;
 
+import functions.DualNumber;
+
 public class Tan extends TrigonometricFunction {
     @Override
     public double getFunctionValue(double x) {
         return Math.tan(x);
     }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        return x.tan();
+    }
+    @Override
+    public double getPeriod() {
+        return Math.PI;
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = Math.tan(xs[i]);
+        }
+    }
 }
\ No newline at end of file
@@ -9,4 +9,7 @@ public abstract class TrigonometricFunction implements Function {
     public double getRightDomainBorder() {
         return Double.POSITIVE_INFINITY;
     }
+    public double getPeriod() {
+        return 2 * Math.PI;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package functions.meta;
+
+import functions.ArrayTabulatedFunction;
+import functions.DualNumber;
+import functions.Function;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+// обёртка, которая после прогрева заменяет f таблицей на равномерной сетке в пределах заданной погрешности,
+// выборочно сверяет таблицу с f и возвращается к прямым вызовам, если точность ушла;
+// таблица строится в фоне, а вызовы тем временем идут в f напрямую
+public class AutoTabulated implements Function {
+    private static final int INITIAL_POINTS = 257;
+    private static final int MAX_FAILED_BUILDS = 4;
+
+    private final Function f;
+    private final double maxError;
+    private final int warmupCalls;
+    private final int validationInterval;
+    private final int maxPoints;
+
+    // счётчики и наблюдаемый диапазон обновляются без синхронизации: потеря отдельных обновлений допустима
+    private long calls;
+    private int outsideCalls;
+    private long outsideWindow;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private long nextAttempt;
+    private int failedBuilds;
+    private volatile boolean building;
+    private volatile Table table;
+    private volatile int rebuildCount;
+    private volatile int fallbackCount;
+
+    public AutoTabulated(Function f, double maxError) {
+        this(f, maxError, 10000, 4096, 1 << 20);
+    }
+
+    public AutoTabulated(Function f, double maxError, int warmupCalls, int validationInterval, int maxPoints) {
+        if (!(maxError > 0)) {
+            throw new IllegalArgumentException("Error budget must be positive, got: " + maxError);
+        }
+        if (warmupCalls < 1 || validationInterval < 1 || maxPoints < INITIAL_POINTS) {
+            throw new IllegalArgumentException("Invalid tuning: warmup=" + warmupCalls
+                    + ", validation interval=" + validationInterval + ", max points=" + maxPoints);
+        }
+        this.f = f;
+        this.maxError = maxError;
+        this.warmupCalls = warmupCalls;
+        this.validationInterval = validationInterval;
+        this.maxPoints = maxPoints;
+        this.nextAttempt = warmupCalls;
+    }
+
+    public boolean isTabulated() {
+        return table != null;
+    }
+
+    public int getTabulatedPointsCount() {
+        Table current = table;
+        return current == null ? 0 : current.function.getPointsCount();
+    }
+
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    public int getFallbackCount() {
+        return fallbackCount;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return f.getLeftDomainBorder();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return f.getRightDomainBorder();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        long call = ++calls;
+        Table current = table;
+        if (current != null && x >= current.leftX && x <= current.rightX) {
+            double y = current.value(x);
+            if (call % validationInterval == 0) {
+                validate(current, x, y);
+            }
+            return y;
+        }
+        if (x < minX) {
+            minX = x;
+        }
+        if (x > maxX) {
+            maxX = x;
+        }
+        if (current != null) {
+            // запросы за пределами таблицы считаются в окне из validationInterval вызовов:
+            // если их доля в окне заметна, перестраиваем таблицу на расширенном диапазоне
+            long window = call / validationInterval;
+            if (window != outsideWindow) {
+                outsideWindow = window;
+                outsideCalls = 0;
+            }
+            if (++outsideCalls * 16 > validationInterval && call >= nextAttempt && !building) {
+                outsideCalls = 0;
+                startRebuild();
+            }
+        } else if (call >= nextAttempt && !building) {
+            startRebuild();
+        }
+        return f.getFunctionValue(x);
+    }
+
+    // производная берётся у исходной функции: у кусочно-линейной таблицы она ступенчатая
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        return f.getFunctionValue(x);
+    }
+
+    private void validate(Table current, double x, double y) {
+        double exact = f.getFunctionValue(x);
+        if (!(Math.abs(exact - y) <= maxError)) {
+            synchronized (this) {
+                if (table == current) {
+                    table = null;
+                    fallbackCount++;
+                    // после каждого отката следующая попытка откладывается вдвое дольше
+                    nextAttempt = calls + ((long) warmupCalls << Math.min(fallbackCount, 16));
+                }
+            }
+        }
+    }
+
+    private synchronized void startRebuild() {
+        if (building) {
+            return;
+        }
+        double left = Math.max(minX, f.getLeftDomainBorder());
+        double right = Math.min(maxX, f.getRightDomainBorder());
+        Table current = table;
+        if (current != null) {
+            left = Math.min(left, current.leftX);
+            right = Math.max(right, current.rightX);
+        }
+        if (!(right - left > 1e-10)) {
+            nextAttempt = calls + warmupCalls;
+            return;
+        }
+        building = true;
+        double from = left;
+        double to = right;
+        CompletableFuture.supplyAsync(() -> build(from, to))
+                .whenComplete((built, error) -> finishRebuild(built));
+    }
+
+    private synchronized void finishRebuild(Table built) {
+        if (built != null) {
+            table = built;
+            rebuildCount++;
+            failedBuilds = 0;
+        } else {
+            // неудачная сборка стоит до 2 * maxPoints вызовов f: следующая попытка откладывается вдвое дольше,
+            // а после MAX_FAILED_BUILDS неудач подряд функция остаётся на прямых вызовах
+            failedBuilds++;
+            nextAttempt = failedBuilds >= MAX_FAILED_BUILDS ? Long.MAX_VALUE
+                    : calls + ((long) warmupCalls << failedBuilds);
+        }
+        building = false;
+    }
+
+    // удваивает число точек, пока погрешность в серединах отрезков не уложится в бюджет
+    private Table build(double left, double right) {
+        for (int n = INITIAL_POINTS; n <= maxPoints; n = 2 * n - 1) {
+            int count = n;
+            double step = (right - left) / (count - 1);
+            double[] ys = new double[count];
+            IntStream.range(0, count).parallel().forEach(i -> ys[i] = f.getFunctionValue(left + i * step));
+            double error = IntStream.range(0, count - 1).parallel().mapToDouble(i -> {
+                double exact = f.getFunctionValue(left + (i + 0.5) * step);
+                double diff = Math.abs(exact - (ys[i] + ys[i + 1]) / 2);
+                return Double.isNaN(diff) ? Double.POSITIVE_INFINITY : diff;
+            }).max().orElse(0);
+            if (error <= maxError) {
+                return new Table(new ArrayTabulatedFunction(left, right, ys), left, right);
+            }
+        }
+        return null;
+    }
+
+    // индекс отрезка вычисляется по x напрямую, без поиска
+    private static final class Table {
+        private final ArrayTabulatedFunction function;
+        private final double leftX;
+        private final double rightX;
+        private final double inverseStep;
+        private final int lastSegment;
+
+        Table(ArrayTabulatedFunction function, double leftX, double rightX) {
+            this.function = function;
+            this.leftX = leftX;
+            this.rightX = rightX;
+            this.lastSegment = function.getPointsCount() - 2;
+            this.inverseStep = (lastSegment + 1) / (rightX - leftX);
+        }
+
+        double value(double x) {
+            double position = (x - leftX) * inverseStep;
+            int i = Math.min((int) position, lastSegment);
+            double y1 = function.getPointY(i);
+            double y2 = function.getPointY(i + 1);
+            return y1 + (y2 - y1) * (position - i);
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package functions.meta;
 
+import functions.DualNumber;
 import functions.Function;
 
 public class Composition implements Function {
@@ -29,4 +30,25 @@ public class Composition implements Function {
         }
         return f2.getFunctionValue(y1);
     }
+
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        DualNumber y1 = f1.getFunctionValue(x);
+        if (y1.isNaN()) {
+            return DualNumber.nan();
+        }
+        return f2.getFunctionValue(y1);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        double[] ys1 = new double[xs.length];
+        f1.getFunctionValues(xs, ys1);
+        f2.getFunctionValues(ys1, ys);
+        for (int i = 0; i < xs.length; i++) {
+            if (Double.isNaN(ys1[i])) {
+                ys[i] = Double.NaN;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package functions.meta;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// счётчики одного узла; гистограмма задержек логарифмическая, 8 подкорзин на каждую степень двойки
+public final class EvaluationMetrics {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nanResults = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray histogram = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    EvaluationMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean nan) {
+        calls.increment();
+        totalNanos.add(nanos);
+        if (nan) {
+            nanResults.increment();
+        }
+        histogram.incrementAndGet(bucket(Math.max(0, nanos)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getNaNCount() {
+        return nanResults.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double getMeanNanos() {
+        long count = calls.sum();
+        return count == 0 ? 0 : (double) totalNanos.sum() / count;
+    }
+
+    // верхняя граница корзины, в которую попадает заданный процентиль
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in [0, 100], got: " + percentile);
+        }
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            total += histogram.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= Math.max(1, target)) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(histogram.length() - 1);
+    }
+
+    public void reset() {
+        calls.reset();
+        nanResults.reset();
+        totalNanos.reset();
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long lower = (1L << magnitude) + ((long) sub << (magnitude - SUB_BUCKET_BITS));
+        return lower + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": calls=" + getCallCount() + ", NaN=" + getNaNCount()
+                + ", mean=" + String.format("%.1f", getMeanNanos()) + "ns"
+                + ", p50=" + getPercentileNanos(50) + "ns"
+                + ", p99=" + getPercentileNanos(99) + "ns";
+    }
+}
\ No newline at end of file
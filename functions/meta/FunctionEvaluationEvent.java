@@ -0,0 +1,26 @@
+package functions.meta;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("functions.FunctionEvaluation")
+@Label("Function Evaluation")
+@Category("Functions")
+@Description("Evaluation of an instrumented function node")
+class FunctionEvaluationEvent extends Event {
+    @Label("Node")
+    String node;
+
+    @Label("Argument")
+    double x;
+
+    @Label("Result")
+    double y;
+
+    @Label("Dual Number")
+    @Description("Evaluation carried a derivative")
+    boolean dual;
+}
\ No newline at end of file
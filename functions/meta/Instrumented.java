@@ -0,0 +1,61 @@
+package functions.meta;
+
+import functions.DualNumber;
+import functions.Function;
+
+public class Instrumented implements Function {
+    private Function f;
+    private EvaluationMetrics metrics;
+
+    public Instrumented(Function f, String name) {
+        this.f = f;
+        this.metrics = new EvaluationMetrics(name);
+    }
+
+    public EvaluationMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return f.getLeftDomainBorder();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return f.getRightDomainBorder();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        FunctionEvaluationEvent event = new FunctionEvaluationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        double y = f.getFunctionValue(x);
+        metrics.record(System.nanoTime() - start, Double.isNaN(y));
+        if (event.shouldCommit()) {
+            event.node = metrics.getName();
+            event.x = x;
+            event.y = y;
+            event.commit();
+        }
+        return y;
+    }
+
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        FunctionEvaluationEvent event = new FunctionEvaluationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        DualNumber y = f.getFunctionValue(x);
+        metrics.record(System.nanoTime() - start, y.isNaN());
+        if (event.shouldCommit()) {
+            event.node = metrics.getName();
+            event.x = x.getValue();
+            event.y = y.getValue();
+            event.dual = true;
+            event.commit();
+        }
+        return y;
+    }
+}
\ No newline at end of file
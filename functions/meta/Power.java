@@ -1,5 +1,6 @@
 package functions.meta;
 
+import functions.DualNumber;
 import functions.Function;
 
 public class Power implements Function {
@@ -26,4 +27,20 @@ public class Power implements Function {
         }
         return Math.pow(y, power);
     }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        DualNumber y = f.getFunctionValue(x);
+        if (y.isNaN()) {
+            return DualNumber.nan();
+        }
+        return y.pow(power);
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        f.getFunctionValues(xs, ys);
+        for (int i = 0; i < xs.length; i++) {
+            double y = ys[i];
+            ys[i] = Double.isNaN(y) ? Double.NaN : Math.pow(y, power);
+        }
+    }
 }
\ No newline at end of file
@@ -1,4 +1,5 @@
 package functions.meta;
+import functions.DualNumber;
 import functions.Function;
 public class Scale implements Function {
     private Function f;
@@ -30,4 +31,25 @@ public class Scale implements Function {
         }
         return y * scaleY;
     }
+
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        DualNumber y = f.getFunctionValue(x.divide(scaleX));
+        if (y.isNaN()) {
+            return DualNumber.nan();
+        }
+        return y.multiply(scaleY);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        double[] scaledXs = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            scaledXs[i] = xs[i] / scaleX;
+        }
+        f.getFunctionValues(scaledXs, ys);
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] *= scaleY;
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package functions.meta;
 
+import functions.DualNumber;
 import functions.Function;
 
 public class Shift implements Function {
@@ -32,4 +33,25 @@ public class Shift implements Function {
         }
         return y + shiftY;
     }
+
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        DualNumber y = f.getFunctionValue(x.add(-shiftX));
+        if (y.isNaN()) {
+            return DualNumber.nan();
+        }
+        return y.add(shiftY);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        double[] shiftedXs = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            shiftedXs[i] = xs[i] - shiftX;
+        }
+        f.getFunctionValues(shiftedXs, ys);
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] += shiftY;
+        }
+    }
 }
\ No newline at end of file
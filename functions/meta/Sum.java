@@ -1,4 +1,5 @@
 package functions.meta;
+import functions.DualNumber;
 import functions.Function;
 public class Sum implements Function {
     private Function f1;
@@ -29,4 +30,34 @@ public class Sum implements Function {
         }
         return y1 + y2;
     }
+    @Override
+    public DualNumber getFunctionValue(DualNumber x) {
+        if (x.getValue() < getLeftDomainBorder() || x.getValue() > getRightDomainBorder()) {
+            return DualNumber.nan();
+        }
+        DualNumber y1 = f1.getFunctionValue(x);
+        DualNumber y2 = f2.getFunctionValue(x);
+
+        if (y1.isNaN() || y2.isNaN()) {
+            return DualNumber.nan();
+        }
+        return y1.add(y2);
+    }
+    @Override
+    public void getFunctionValues(double[] xs, double[] ys) {
+        double[] ys1 = new double[xs.length];
+        double[] ys2 = new double[xs.length];
+        f1.getFunctionValues(xs, ys1);
+        f2.getFunctionValues(xs, ys2);
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        for (int i = 0; i < xs.length; i++) {
+            double x = xs[i];
+            if (x < left || x > right || Double.isNaN(ys1[i]) || Double.isNaN(ys2[i])) {
+                ys[i] = Double.NaN;
+            } else {
+                ys[i] = ys1[i] + ys2[i];
+            }
+        }
+    }
 }
\ No newline at end of file